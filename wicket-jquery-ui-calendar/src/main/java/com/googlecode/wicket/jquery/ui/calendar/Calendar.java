@@ -18,6 +18,7 @@ package com.googlecode.wicket.jquery.ui.calendar;
 
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -56,6 +57,7 @@ public class Calendar extends JQueryContainer
 	private JQueryAjaxBehavior onEventClickBehavior; // event click
 	private JQueryAjaxBehavior onEventDropBehavior; // event drop
 	private JQueryAjaxBehavior onEventResizeBehavior; // event resize
+	private EventChangeBehavior onEventChangeBehavior; // batched event drop & resize
 
 	/**
 	 * Constructor
@@ -182,6 +184,18 @@ public class Calendar extends JQueryContainer
 		return false;
 	}
 
+	/**
+	 * Gets the delay during which event drops and resizes are queued on the client side, before being submitted as a single batch.<br/>
+	 * If not null, the {@link #onEventsChanged(AjaxRequestTarget, List)} event will be triggered once per batch, instead of one request per change.
+	 * Successive changes of the same type on the same event are coalesced.
+	 *
+	 * @return null by default, meaning that each change is submitted immediately
+	 */
+	protected Duration getEventChangeDelay()
+	{
+		return null;
+	}
+
 	// Events //
 	@Override
 	protected void onInitialize()
@@ -196,6 +210,7 @@ public class Calendar extends JQueryContainer
 		this.add(this.onEventClickBehavior = this.newOnEventClickBehavior());
 		this.add(this.onEventDropBehavior = this.newOnEventDropBehavior());
 		this.add(this.onEventResizeBehavior = this.newOnEventResizeBehavior());
+		this.add(this.onEventChangeBehavior = this.newOnEventChangeBehavior());
 	}
 
 	/**
@@ -249,6 +264,28 @@ public class Calendar extends JQueryContainer
 			ResizeEvent resizeEvent = (ResizeEvent) payload;
 			this.onEventResize(resizeEvent.getTarget(), resizeEvent.getEventId(), resizeEvent.getDelta());
 		}
+
+		else if (payload instanceof ChangeEvent)
+		{
+			ChangeEvent changeEvent = (ChangeEvent) payload;
+			AjaxRequestTarget target = changeEvent.getTarget();
+
+			this.onEventsChanged(target, changeEvent.getChanges());
+
+			// acknowledges the batch, rejected changes are reverted //
+			StringBuilder rejected = new StringBuilder();
+
+			for (CalendarEventChange change : changeEvent.getChanges())
+			{
+				if (change.isRejected())
+				{
+					if (rejected.length() > 0) { rejected.append(", "); }
+					rejected.append("'").append(change.getKey()).append("'");
+				}
+			}
+
+			target.appendJavaScript(String.format("jQuery('%s').data('%s').done(%d, [%s]);", JQueryWidget.getSelector(this), EventChangeBehavior.QUEUE, changeEvent.getBatch(), rejected));
+		}
 	}
 
 	/**
@@ -309,6 +346,33 @@ public class Calendar extends JQueryContainer
 	{
 	}
 
+	/**
+	 * Triggered when a batch of events have been dropped and/or resized.<br/>
+	 * {@link #getEventChangeDelay()} should return a non-null value for this event to be triggered.<br/>
+	 * A change that cannot be applied should be rejected using {@link CalendarEventChange#reject()}, so that the event is reverted on the client side.<br/>
+	 * By default, each change is forwarded to {@link #onEventDrop(AjaxRequestTarget, int, long, boolean)} or {@link #onEventResize(AjaxRequestTarget, int, long)}.
+	 *
+	 * @param target the {@link AjaxRequestTarget}
+	 * @param changes the list of {@link CalendarEventChange}<code>s</code>, in the order they have been made
+	 */
+	protected void onEventsChanged(AjaxRequestTarget target, List<CalendarEventChange> changes)
+	{
+		for (CalendarEventChange change : changes)
+		{
+			switch (change.getType())
+			{
+				case DROP:
+					this.onEventDrop(target, change.getEventId(), change.getDelta(), change.isAllDay());
+					break;
+				case RESIZE:
+					this.onEventResize(target, change.getEventId(), change.getDelta());
+					break;
+				default:
+					break;
+			}
+		}
+	}
+
 
 	// IJQueryWidget //
 	/**
@@ -328,7 +392,7 @@ public class Calendar extends JQueryContainer
 
 				// builds sources //
 				StringBuilder sourceBuilder = new StringBuilder();
-				sourceBuilder.append("'").append(Calendar.this.modelBehavior.getCallbackUrl()).append("'");
+				sourceBuilder.append(Calendar.this.modelBehavior.getEventSource());
 
 				if (Calendar.this.gcals != null)
 				{
@@ -353,14 +417,16 @@ public class Calendar extends JQueryContainer
 					this.setOption("select", Calendar.this.onSelectBehavior.getCallbackFunction());
 				}
 
+				Duration delay = Calendar.this.getEventChangeDelay();
+
 				if (Calendar.this.isEventDropEnabled())
 				{
-					this.setOption("eventDrop", Calendar.this.onEventDropBehavior.getCallbackFunction());
+					this.setOption("eventDrop", delay != null ? Calendar.this.onEventChangeBehavior.getCallbackFunction(CalendarEventChange.Type.DROP, delay) : Calendar.this.onEventDropBehavior.getCallbackFunction());
 				}
 
 				if (Calendar.this.isEventResizeEnabled())
 				{
-					this.setOption("eventResize", Calendar.this.onEventResizeBehavior.getCallbackFunction());
+					this.setOption("eventResize", delay != null ? Calendar.this.onEventChangeBehavior.getCallbackFunction(CalendarEventChange.Type.RESIZE, delay) : Calendar.this.onEventResizeBehavior.getCallbackFunction());
 				}
 			}
 		};
@@ -500,6 +566,17 @@ public class Calendar extends JQueryContainer
 	}
 
 
+	/**
+	 * Gets the ajax behavior that will be triggered when a batch of event drops and resizes is submitted
+	 *
+	 * @return the {@link EventChangeBehavior}
+	 */
+	private EventChangeBehavior newOnEventChangeBehavior()
+	{
+		return new EventChangeBehavior(this);
+	}
+
+
 	// Behavior classes //
 	/**
 	 * Base class for {@link JQueryAjaxBehavior} that will broadcast delta-based events
@@ -527,6 +604,89 @@ public class Calendar extends JQueryContainer
 	}
 
 
+	/**
+	 * Provides the {@link JQueryAjaxBehavior} that queues event drops and resizes on the client side, and submits them as a single batch
+	 */
+	private class EventChangeBehavior extends JQueryAjaxBehavior
+	{
+		private static final long serialVersionUID = 1L;
+
+		/** jQuery data key of the client-side queue */
+		static final String QUEUE = "wicket-changes";
+
+		public EventChangeBehavior(Component source)
+		{
+			super(source);
+		}
+
+		/**
+		 * Gets the fullCalendar callback function, that queues the change
+		 * @param type the {@link CalendarEventChange.Type}
+		 * @param delay the {@link Duration} after which queued changes are submitted, if no other change has been queued meanwhile
+		 * @return the callback function
+		 */
+		public String getCallbackFunction(CalendarEventChange.Type type, Duration delay)
+		{
+			StringBuilder builder = new StringBuilder();
+
+			if (type == CalendarEventChange.Type.DROP)
+			{
+				builder.append("function(event, dayDelta, minuteDelta, allDay, revertFunc) { ");
+			}
+			else
+			{
+				builder.append("function(event, dayDelta, minuteDelta, revertFunc) { var allDay = false; ");
+			}
+
+			// gets or creates the queue //
+			builder.append("var $e = jQuery('").append(JQueryWidget.getSelector(Calendar.this)).append("'), $q = $e.data('").append(QUEUE).append("'); ");
+			builder.append("if (!$q) { $q = { items: {}, keys: [], seq: 0, sent: {}, timer: null, ");
+			builder.append("done: function(batch, rejected) { var items = this.sent[batch] || []; delete this.sent[batch]; "); // rejected: array of keys, or true for all
+			builder.append("for (var i = items.length - 1; i >= 0; i--) { if (rejected === true || jQuery.inArray(items[i].key, rejected) >= 0) { for (var j = items[i].reverts.length - 1; j >= 0; j--) { items[i].reverts[j](); } } } ");
+			builder.append("} }; $e.data('").append(QUEUE).append("', $q); } ");
+
+			// queues (coalesces) the change //
+			builder.append("var k = '").append(type.getCode()).append("' + event.id, it = $q.items[k]; ");
+			builder.append("if (!it) { it = $q.items[k] = { key: k, days: 0, minutes: 0, allDay: false, reverts: [], change: null }; $q.keys.push(k); } ");
+			builder.append("it.days += dayDelta; it.minutes += minuteDelta; it.allDay = allDay; it.reverts.push(revertFunc); ");
+			builder.append("it.change = event.id + ':").append(type.getCode()).append(":' + it.days + ':' + it.minutes + ':' + (allDay ? 1 : 0); ");
+
+			// (re)schedules the submission //
+			builder.append("clearTimeout($q.timer); ");
+			builder.append("$q.timer = setTimeout(function() { ");
+			builder.append("var items = [], changes = []; ");
+			builder.append("jQuery.each($q.keys, function(i, k) { items.push($q.items[k]); changes.push($q.items[k].change); }); ");
+			builder.append("$q.items = {}; $q.keys = []; ");
+			builder.append("var batch = ++$q.seq; $q.sent[batch] = items; ");
+			builder.append(this.getCallbackScript());
+			builder.append(" }, ").append(delay.getMilliseconds()).append("); }");
+
+			return builder.toString();
+		}
+
+		@Override
+		public CharSequence getCallbackScript()
+		{
+			return this.generateCallbackScript("wicketAjaxGet('" + this.getCallbackUrl() + "&batch=' + batch + '&changes=' + encodeURIComponent(changes.join(';'))");
+		}
+
+		/**
+		 * Reverts all the changes of the batch if the request failed (ie: server exception), as it will never be acknowledged
+		 */
+		@Override
+		protected CharSequence getFailureScript()
+		{
+			return String.format("var $q = jQuery('%s').data('%s'); if ($q) { $q.done(batch, true); }", JQueryWidget.getSelector(Calendar.this), QUEUE);
+		}
+
+		@Override
+		protected JQueryEvent newEvent(AjaxRequestTarget target)
+		{
+			return new ChangeEvent(target);
+		}
+	}
+
+
 	// Event classes //
 	/**
 	 * An event object that will be broadcasted when the user clicks on a day cell
@@ -719,4 +879,43 @@ public class Calendar extends JQueryContainer
 			super(target);
 		}
 	}
+
+	/**
+	 * An event object that will be broadcasted when a batch of event drops and resizes is submitted
+	 */
+	private class ChangeEvent extends JQueryEvent
+	{
+		private final int batch;
+		private final List<CalendarEventChange> changes;
+
+		/**
+		 * Constructor
+		 * @param target the {@link AjaxRequestTarget}
+		 */
+		public ChangeEvent(AjaxRequestTarget target)
+		{
+			super(target);
+
+			this.batch = RequestCycleUtils.getQueryParameterValue("batch").toInt(-1);
+			this.changes = CalendarEventChange.parse(RequestCycleUtils.getQueryParameterValue("changes").toString(""));
+		}
+
+		/**
+		 * Gets the batch number
+		 * @return the batch number
+		 */
+		public int getBatch()
+		{
+			return this.batch;
+		}
+
+		/**
+		 * Gets the list of changes
+		 * @return the list of {@link CalendarEventChange}<code>s</code>
+		 */
+		public List<CalendarEventChange> getChanges()
+		{
+			return this.changes;
+		}
+	}
 }
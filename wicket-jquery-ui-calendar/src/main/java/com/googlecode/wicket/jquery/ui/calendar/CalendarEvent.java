@@ -19,7 +19,7 @@ package com.googlecode.wicket.jquery.ui.calendar;
 import java.io.Serializable;
 import java.util.Date;
 
-import com.googlecode.wicket.jquery.ui.Options;
+import com.googlecode.wicket.jquery.ui.utils.JsonWriter;
 
 /**
  * Provides a base bean that can be used with a {@link CalendarModel} 
@@ -204,78 +204,38 @@ public class CalendarEvent implements Serializable
 	}
 
 
+	/**
+	 * Writes the JSON object of this {@link CalendarEvent}<br/>
+	 * This is the serialization hook of the event, used by {@link #toString()} and by the {@link CalendarModelBehavior}.
+	 * It can be overridden to write additional properties, ie:
+	 * <pre>
+	 * public void writeTo(JsonWriter writer)
+	 * {
+	 *     writer.beginObject();
+	 *     CalendarEventSerializer.writeProperties(writer, this);
+	 *     writer.property("description", this.getDescription());
+	 *     writer.endObject();
+	 * }
+	 * </pre>
+	 * @param writer the {@link JsonWriter}
+	 * @see CalendarEventSerializer
+	 */
+	public void writeTo(JsonWriter writer)
+	{
+		CalendarEventSerializer.write(writer, this);
+	}
+
 	/**
 	 * Gets the JSON representation of this {@link CalendarEvent}
+	 * @see #writeTo(JsonWriter)
 	 */
 	@Override
 	public String toString()
 	{
-		Options options = new Options();
-		
-		options.set("id", this.id);
-		
-		if (this.title != null)
-		{
-			options.set("title", Options.asString(this.title));
-		}
-		
-		if (this.start != null)
-		{
-			options.set("start", Options.asDate(this.start)); 
-		}
-		
-		if (this.end != null)
-		{
-			options.set("end", Options.asDate(this.end));
-		}
-		
-		if (this.url != null)
-		{
-			options.set("url", Options.asString(this.url));
-		}
-		
-		if (this.source != null)
-		{
-			options.set("source", Options.asString(this.source));
-		}
-		
-		if (this.allDay != null)
-		{
-			options.set("allDay", this.allDay);
-		}
-		
-		if (this.editable != null)
-		{
-			options.set("editable", editable);
-		}
-
-		// styling //
-		if (this.className != null)
-		{
-			options.set("className", Options.asString(this.className));
-		}
-
-		if (this.color != null)
-		{
-			options.set("color", Options.asString(this.color));
-		}
-
-		if (this.backgroundColor != null)
-		{
-			options.set("backgroundColor", Options.asString(this.backgroundColor));
-		}
-
-		if (this.borderColor != null)
-		{
-			options.set("borderColor", Options.asString(this.borderColor));
-		}
-		
-		if (this.textColor != null)
-		{
-			options.set("textColor", Options.asString(this.textColor));
-		}
-		
-		return options.toString();
+		StringBuilder builder = new StringBuilder();
+		this.writeTo(new JsonWriter(builder));
+
+		return builder.toString();
 	}
 
 	/**
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.calendar;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.wicket.util.time.Duration;
+
+/**
+ * Provides a change (move or resize) made by the user on a {@link CalendarEvent}, as part of a batch of changes submitted at once.<br/>
+ * A change that cannot be applied should be {@link #reject()}ed, so that it is reverted on the client side.
+ *
+ * @author Sebastien Briquet - sebfz1
+ * @see Calendar#onEventsChanged(org.apache.wicket.ajax.AjaxRequestTarget, List)
+ */
+public class CalendarEventChange
+{
+	/**
+	 * The type of change
+	 */
+	public enum Type
+	{
+		/** the event has been moved (drag &#38; drop) */
+		DROP('d'),
+		/** the event has been resized */
+		RESIZE('r');
+
+		private final char code;
+
+		private Type(char code)
+		{
+			this.code = code;
+		}
+
+		/**
+		 * Gets the code used by the client-side queue
+		 * @return the code
+		 */
+		char getCode()
+		{
+			return this.code;
+		}
+	}
+
+	/**
+	 * Parses the changes sent by the client-side queue, in the following format: <code>id:type:dayDelta:minuteDelta:allDay;...</code><br/>
+	 * Malformed changes are ignored.
+	 * @param changes the changes parameter
+	 * @return the list of {@link CalendarEventChange}<code>s</code>
+	 */
+	static List<CalendarEventChange> parse(String changes)
+	{
+		List<CalendarEventChange> list = new ArrayList<CalendarEventChange>();
+
+		for (String change : changes.split(";"))
+		{
+			String[] values = change.split(":");
+
+			if (values.length == 5 && values[1].length() == 1)
+			{
+				try
+				{
+					int eventId = Integer.parseInt(values[0]);
+					Type type = values[1].charAt(0) == Type.RESIZE.getCode() ? Type.RESIZE : Type.DROP;
+					long delta = (Integer.parseInt(values[2]) * Duration.ONE_DAY.getMilliseconds()) + (Integer.parseInt(values[3]) * Duration.ONE_MINUTE.getMilliseconds());
+
+					list.add(new CalendarEventChange(eventId, type, delta, "1".equals(values[4])));
+				}
+				catch (NumberFormatException e)
+				{
+					// ignores the change
+				}
+			}
+		}
+
+		return list;
+	}
+
+
+	private final int eventId;
+	private final Type type;
+	private final long delta;
+	private final boolean allDay;
+	private boolean rejected;
+
+	/**
+	 * Constructor
+	 * @param eventId the {@link CalendarEvent} id
+	 * @param type the {@link Type} of change
+	 * @param delta the delta (time) with the original event date (DROP), or end date (RESIZE)
+	 * @param allDay the event all-day property (DROP only)
+	 */
+	public CalendarEventChange(int eventId, Type type, long delta, boolean allDay)
+	{
+		this.eventId = eventId;
+		this.type = type;
+		this.delta = delta;
+		this.allDay = allDay;
+		this.rejected = false;
+	}
+
+	/**
+	 * Gets the event's id
+	 * @return the event's id
+	 */
+	public int getEventId()
+	{
+		return this.eventId;
+	}
+
+	/**
+	 * Gets the type of change
+	 * @return the {@link Type}
+	 */
+	public Type getType()
+	{
+		return this.type;
+	}
+
+	/**
+	 * Gets the event's delta time in milliseconds.<br/>
+	 * Successive changes of the same type on the same event, within the batch delay, are coalesced: the delta is their sum.
+	 * @return the event's delta time
+	 */
+	public long getDelta()
+	{
+		return this.delta;
+	}
+
+	/**
+	 * Indicated whether the event is an 'all-day' event (DROP only)
+	 * @return true or false
+	 */
+	public boolean isAllDay()
+	{
+		return this.allDay;
+	}
+
+	/**
+	 * Rejects the change: the event will be reverted to its original position or size on the client side
+	 */
+	public void reject()
+	{
+		this.rejected = true;
+	}
+
+	/**
+	 * Indicates whether the change has been rejected
+	 * @return true or false
+	 */
+	public boolean isRejected()
+	{
+		return this.rejected;
+	}
+
+	/**
+	 * Gets the key identifying the change in the client-side queue
+	 * @return the key
+	 */
+	String getKey()
+	{
+		return this.type.getCode() + Integer.toString(this.eventId);
+	}
+}
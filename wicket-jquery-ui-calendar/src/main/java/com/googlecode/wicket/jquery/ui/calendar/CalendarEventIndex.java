@@ -0,0 +1,600 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.calendar;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Provides an in-memory interval index of {@link CalendarEvent}<code>s</code>, to retrieve the events of a [start, end] window
+ * without scanning the whole collection.<br/>
+ * The index is a balanced (treap) binary search tree ordered by event start, in which each node holds the max end of its subtree;
+ * window queries run in O(log n + k) for k matching events, and updates in O(log n).<br/>
+ * <br/>
+ * The index is thread-safe: queries can run concurrently, updates are exclusive. It is intended to be shared (ie: application-wide),
+ * see {@link IndexedCalendarModel}.<br/>
+ * Events are indexed by instance, so that the occurrences of a repeating event, which share the same id, are all indexed;
+ * an occurrence is addressed either by its instance, or by its id and its start date.<br/>
+ * <b>Note:</b> The dates of an event are read when the event is added; if they are changed afterward, {@link #update(CalendarEvent)} should be called.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ * @param <T> the type of {@link CalendarEvent}
+ */
+public class CalendarEventIndex<T extends CalendarEvent>
+{
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<T, Node<T>> nodes = new IdentityHashMap<T, Node<T>>(); // event -> node
+	private final Map<Integer, List<Node<T>>> occurrences = new HashMap<Integer, List<Node<T>>>(); // event id -> nodes
+	private Node<T> root = null;
+	private int seed = 0x2545F491;
+	private long sequence = 0;
+
+	/**
+	 * Constructor
+	 */
+	public CalendarEventIndex()
+	{
+	}
+
+	/**
+	 * Constructor
+	 * @param events the events to be indexed
+	 */
+	public CalendarEventIndex(Collection<? extends T> events)
+	{
+		this.addAll(events);
+	}
+
+	// Methods //
+	/**
+	 * Gets the number of indexed events
+	 * @return the number of events
+	 */
+	public int size()
+	{
+		this.lock.readLock().lock();
+
+		try
+		{
+			return this.nodes.size();
+		}
+		finally
+		{
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets an event by its id
+	 * @param id the event id
+	 * @return the first indexed occurrence of the event, or null if not found
+	 */
+	public T get(int id)
+	{
+		this.lock.readLock().lock();
+
+		try
+		{
+			List<Node<T>> list = this.occurrences.get(id);
+
+			return (list != null) ? list.get(0).event : null;
+		}
+		finally
+		{
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets an occurrence of an event by its id and its start date
+	 * @param id the event id
+	 * @param start the start date of the occurrence, as indexed
+	 * @return the occurrence, or null if not found
+	 */
+	public T get(int id, Date start)
+	{
+		this.lock.readLock().lock();
+
+		try
+		{
+			Node<T> node = this.getNode(id, start);
+
+			return (node != null) ? node.event : null;
+		}
+		finally
+		{
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets all the occurrences of an event
+	 * @param id the event id
+	 * @return the list of occurrences, in the order they have been added
+	 */
+	public List<T> getAll(int id)
+	{
+		List<T> events = new ArrayList<T>();
+
+		this.lock.readLock().lock();
+
+		try
+		{
+			List<Node<T>> list = this.occurrences.get(id);
+
+			if (list != null)
+			{
+				for (Node<T> node : list)
+				{
+					events.add(node.event);
+				}
+			}
+		}
+		finally
+		{
+			this.lock.readLock().unlock();
+		}
+
+		return events;
+	}
+
+	/**
+	 * Adds an event (or an occurrence of a repeating event).<br/>
+	 * If the very same event is already indexed, it is re-indexed (see {@link #update(CalendarEvent)}); other events having the same id are kept.
+	 * @param event the {@link CalendarEvent}
+	 */
+	public void add(T event)
+	{
+		this.lock.writeLock().lock();
+
+		try
+		{
+			this.internalRemove(this.nodes.get(event));
+			this.internalAdd(event);
+		}
+		finally
+		{
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds events (see {@link #add(CalendarEvent)})
+	 * @param events the {@link CalendarEvent}<code>s</code>
+	 */
+	public void addAll(Collection<? extends T> events)
+	{
+		this.lock.writeLock().lock();
+
+		try
+		{
+			for (T event : events)
+			{
+				this.internalRemove(this.nodes.get(event));
+				this.internalAdd(event);
+			}
+		}
+		finally
+		{
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Re-indexes an event which dates have changed
+	 * @param event the {@link CalendarEvent}, as it has been added
+	 */
+	public void update(T event)
+	{
+		this.add(event);
+	}
+
+	/**
+	 * Removes an event (or an occurrence of a repeating event)
+	 * @param event the {@link CalendarEvent}, as it has been added
+	 * @return true if the event was indexed
+	 */
+	public boolean remove(T event)
+	{
+		this.lock.writeLock().lock();
+
+		try
+		{
+			return this.internalRemove(this.nodes.get(event)) != null;
+		}
+		finally
+		{
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes an occurrence of an event
+	 * @param id the event id
+	 * @param start the start date of the occurrence, as indexed
+	 * @return the removed occurrence, or null if not found
+	 */
+	public T remove(int id, Date start)
+	{
+		this.lock.writeLock().lock();
+
+		try
+		{
+			return this.internalRemove(this.getNode(id, start));
+		}
+		finally
+		{
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes all the occurrences of an event
+	 * @param id the event id
+	 * @return the removed occurrences
+	 */
+	public List<T> removeAll(int id)
+	{
+		List<T> events = new ArrayList<T>();
+
+		this.lock.writeLock().lock();
+
+		try
+		{
+			List<Node<T>> list = this.occurrences.get(id);
+
+			if (list != null)
+			{
+				for (Node<T> node : new ArrayList<Node<T>>(list))
+				{
+					events.add(this.internalRemove(node));
+				}
+			}
+		}
+		finally
+		{
+			this.lock.writeLock().unlock();
+		}
+
+		return events;
+	}
+
+	/**
+	 * Removes all events
+	 */
+	public void clear()
+	{
+		this.lock.writeLock().lock();
+
+		try
+		{
+			this.nodes.clear();
+			this.occurrences.clear();
+			this.root = null;
+		}
+		finally
+		{
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the events overlapping a window, ordered by start date
+	 * @param start the window start date, or null for no lower bound
+	 * @param end the window end date (exclusive), or null for no upper bound
+	 * @return the list of events
+	 */
+	public List<T> query(Date start, Date end)
+	{
+		return this.query(start != null ? start.getTime() : Long.MIN_VALUE, end != null ? end.getTime() : Long.MAX_VALUE);
+	}
+
+	/**
+	 * Gets the events overlapping a window, ordered by start date.<br/>
+	 * An event overlaps the window if it starts before the window end, and ends at or after the window start.
+	 * @param start the window start, in milliseconds
+	 * @param end the window end (exclusive), in milliseconds
+	 * @return the list of events
+	 */
+	public List<T> query(long start, long end)
+	{
+		List<T> events = new ArrayList<T>();
+
+		this.lock.readLock().lock();
+
+		try
+		{
+			CalendarEventIndex.query(this.root, start, end, events);
+		}
+		finally
+		{
+			this.lock.readLock().unlock();
+		}
+
+		return events;
+	}
+
+	private static <T extends CalendarEvent> void query(Node<T> node, long start, long end, List<T> events)
+	{
+		while (node != null && node.max >= start)
+		{
+			CalendarEventIndex.query(node.left, start, end, events);
+
+			if (node.start >= end)
+			{
+				return; // nodes of the right subtree start even later
+			}
+
+			if (node.end >= start)
+			{
+				events.add(node.event);
+			}
+
+			node = node.right; // tail iteration
+		}
+	}
+
+	// Tree //
+	/**
+	 * Gets the node of an occurrence, only called under a lock
+	 * @param id the event id
+	 * @param start the start date of the occurrence
+	 * @return the {@link Node} or null
+	 */
+	private Node<T> getNode(int id, Date start)
+	{
+		List<Node<T>> list = this.occurrences.get(id);
+
+		if (list != null)
+		{
+			long time = (start != null) ? start.getTime() : Long.MIN_VALUE;
+
+			for (Node<T> node : list)
+			{
+				if (node.start == time)
+				{
+					return node;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private void internalAdd(T event)
+	{
+		Node<T> node = new Node<T>(event, this.nextPriority(), this.sequence++);
+
+		List<Node<T>> list = this.occurrences.get(node.id);
+
+		if (list == null)
+		{
+			list = new ArrayList<Node<T>>(1);
+			this.occurrences.put(node.id, list);
+		}
+
+		list.add(node);
+		this.nodes.put(event, node);
+		this.root = CalendarEventIndex.insert(this.root, node);
+	}
+
+	private T internalRemove(Node<T> node)
+	{
+		if (node != null)
+		{
+			List<Node<T>> list = this.occurrences.get(node.id);
+			list.remove(node);
+
+			if (list.isEmpty())
+			{
+				this.occurrences.remove(node.id);
+			}
+
+			this.nodes.remove(node.event);
+			this.root = CalendarEventIndex.delete(this.root, node);
+
+			return node.event;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Gets a pseudo random priority (xorshift), only called under the write lock
+	 * @return the priority
+	 */
+	private int nextPriority()
+	{
+		int x = this.seed;
+		x ^= x << 13;
+		x ^= x >>> 17;
+		x ^= x << 5;
+
+		return this.seed = x;
+	}
+
+	private static <T extends CalendarEvent> Node<T> insert(Node<T> root, Node<T> node)
+	{
+		if (root == null)
+		{
+			return node;
+		}
+
+		if (node.compareTo(root) < 0)
+		{
+			root.left = CalendarEventIndex.insert(root.left, node);
+
+			if (root.left.priority > root.priority)
+			{
+				root = CalendarEventIndex.rotateRight(root);
+			}
+		}
+		else
+		{
+			root.right = CalendarEventIndex.insert(root.right, node);
+
+			if (root.right.priority > root.priority)
+			{
+				root = CalendarEventIndex.rotateLeft(root);
+			}
+		}
+
+		root.fix();
+
+		return root;
+	}
+
+	private static <T extends CalendarEvent> Node<T> delete(Node<T> root, Node<T> node)
+	{
+		if (root == null)
+		{
+			return null;
+		}
+
+		if (root == node)
+		{
+			return CalendarEventIndex.merge(root.left, root.right);
+		}
+
+		if (node.compareTo(root) < 0)
+		{
+			root.left = CalendarEventIndex.delete(root.left, node);
+		}
+		else
+		{
+			root.right = CalendarEventIndex.delete(root.right, node);
+		}
+
+		root.fix();
+
+		return root;
+	}
+
+	private static <T extends CalendarEvent> Node<T> merge(Node<T> left, Node<T> right)
+	{
+		if (left == null)
+		{
+			return right;
+		}
+
+		if (right == null)
+		{
+			return left;
+		}
+
+		if (left.priority > right.priority)
+		{
+			left.right = CalendarEventIndex.merge(left.right, right);
+			left.fix();
+
+			return left;
+		}
+
+		right.left = CalendarEventIndex.merge(left, right.left);
+		right.fix();
+
+		return right;
+	}
+
+	private static <T extends CalendarEvent> Node<T> rotateRight(Node<T> node)
+	{
+		Node<T> left = node.left;
+		node.left = left.right;
+		left.right = node;
+		node.fix();
+		left.fix();
+
+		return left;
+	}
+
+	private static <T extends CalendarEvent> Node<T> rotateLeft(Node<T> node)
+	{
+		Node<T> right = node.right;
+		node.right = right.left;
+		right.left = node;
+		node.fix();
+		right.fix();
+
+		return right;
+	}
+
+
+	/**
+	 * Tree node, ordered by start, then by id, then by insertion order
+	 */
+	private static class Node<T extends CalendarEvent>
+	{
+		private final T event;
+		private final int id;
+		private final long start;
+		private final long end;
+		private final long sequence;
+		private final int priority;
+		private long max; // max end of the subtree
+		private Node<T> left = null;
+		private Node<T> right = null;
+
+		public Node(T event, int priority, long sequence)
+		{
+			this.event = event;
+			this.sequence = sequence;
+			this.id = event.getId();
+			this.start = (event.getStart() != null) ? event.getStart().getTime() : Long.MIN_VALUE;
+			this.end = (event.getEnd() != null) ? Math.max(this.start, event.getEnd().getTime()) : this.start;
+			this.priority = priority;
+			this.max = this.end;
+		}
+
+		public int compareTo(Node<T> node)
+		{
+			if (this.start != node.start)
+			{
+				return (this.start < node.start) ? -1 : 1;
+			}
+
+			if (this.id != node.id)
+			{
+				return (this.id < node.id) ? -1 : 1;
+			}
+
+			return (this.sequence < node.sequence) ? -1 : (this.sequence == node.sequence ? 0 : 1);
+		}
+
+		public void fix()
+		{
+			this.max = this.end;
+
+			if (this.left != null && this.left.max > this.max)
+			{
+				this.max = this.left.max;
+			}
+
+			if (this.right != null && this.right.max > this.max)
+			{
+				this.max = this.right.max;
+			}
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.calendar;
+
+import java.util.Date;
+
+import com.googlecode.wicket.jquery.ui.utils.DateUtils;
+import com.googlecode.wicket.jquery.ui.utils.JsonWriter;
+
+/**
+ * Provides the streaming JSON serialization of {@link CalendarEvent}<code>s</code><br/>
+ * Fields are written directly to a {@link JsonWriter}, string values are escaped, and dates are formatted by {@link DateUtils}
+ * (same format as {@link com.googlecode.wicket.jquery.ui.Options#asDate(Date)}), so that no intermediate object is created per event.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public final class CalendarEventSerializer
+{
+	/**
+	 * Utility class
+	 */
+	private CalendarEventSerializer()
+	{
+	}
+
+	/**
+	 * Writes the JSON object of a {@link CalendarEvent}
+	 * @param writer the {@link JsonWriter}
+	 * @param event the {@link CalendarEvent}
+	 */
+	public static void write(JsonWriter writer, CalendarEvent event)
+	{
+		writer.beginObject();
+		CalendarEventSerializer.writeProperties(writer, event);
+		writer.endObject();
+	}
+
+	/**
+	 * Writes the properties of a {@link CalendarEvent}, inside the current JSON object<br/>
+	 * This is intended to be used by {@link CalendarEvent#writeTo(JsonWriter)} overrides, that write additional properties
+	 * @param writer the {@link JsonWriter}
+	 * @param event the {@link CalendarEvent}
+	 */
+	public static void writeProperties(JsonWriter writer, CalendarEvent event)
+	{
+		writer.property("id", event.getId());
+
+		if (event.getTitle() != null)
+		{
+			writer.property("title", event.getTitle());
+		}
+
+		if (event.getStart() != null)
+		{
+			CalendarEventSerializer.date(writer, "start", event.getStart());
+		}
+
+		if (event.getEnd() != null)
+		{
+			CalendarEventSerializer.date(writer, "end", event.getEnd());
+		}
+
+		if (event.getUrl() != null)
+		{
+			writer.property("url", event.getUrl());
+		}
+
+		if (event.getSource() != null)
+		{
+			writer.property("source", event.getSource());
+		}
+
+		if (event.isAllDay() != null)
+		{
+			writer.property("allDay", event.isAllDay().booleanValue());
+		}
+
+		if (event.isEditable() != null)
+		{
+			writer.property("editable", event.isEditable().booleanValue());
+		}
+
+		// styling //
+		if (event.getClassName() != null)
+		{
+			writer.property("className", event.getClassName());
+		}
+
+		if (event.getColor() != null)
+		{
+			writer.property("color", event.getColor());
+		}
+
+		if (event.getBackgroundColor() != null)
+		{
+			writer.property("backgroundColor", event.getBackgroundColor());
+		}
+
+		if (event.getBorderColor() != null)
+		{
+			writer.property("borderColor", event.getBorderColor());
+		}
+
+		if (event.getTextColor() != null)
+		{
+			writer.property("textColor", event.getTextColor());
+		}
+	}
+
+	/**
+	 * Indicates whether a {@link CalendarEvent} class overrides {@link CalendarEvent#toString()}, in which case its JSON representation
+	 * is the one returned by {@link CalendarEvent#toString()} rather than the one written by {@link CalendarEvent#writeTo(JsonWriter)}
+	 * @param type the {@link CalendarEvent} class
+	 * @return true or false
+	 */
+	static boolean overridesToString(Class<? extends CalendarEvent> type)
+	{
+		try
+		{
+			return type.getMethod("toString").getDeclaringClass() != CalendarEvent.class;
+		}
+		catch (NoSuchMethodException e)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Writes a date property, in the ISO8601 format (see {@link DateUtils#appendISO(StringBuilder, Date)})
+	 * @param writer the {@link JsonWriter}
+	 * @param name the property name
+	 * @param date the {@link Date}
+	 */
+	private static void date(JsonWriter writer, String name, Date date)
+	{
+		StringBuilder builder = writer.name(name).getBuffer();
+		builder.append('"');
+		DateUtils.appendISO(builder, date);
+		builder.append('"');
+	}
+}
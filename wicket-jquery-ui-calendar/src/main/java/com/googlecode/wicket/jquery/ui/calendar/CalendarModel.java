@@ -81,4 +81,14 @@ public abstract class CalendarModel extends LoadableDetachableModel<List<? exten
 	{
 		this.end = date;
 	}
+	
+	/**
+	 * Gets a token that identifies the state of the {@link CalendarEvent}<code>s</code> of the [start, end] interval, and which is cheaper to get than {@link #load()} (ie: a last modification timestamp).<br/>
+	 * If provided, an unchanged interval is answered by a <code>304 Not Modified</code> without the events being loaded.
+	 * @return null by default, meaning the events are loaded before the client version is checked
+	 */
+	protected String getRevision()
+	{
+		return null;
+	}
 }
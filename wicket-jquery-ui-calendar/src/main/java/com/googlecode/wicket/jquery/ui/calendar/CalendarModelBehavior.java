@@ -16,21 +16,54 @@
  */
 package com.googlecode.wicket.jquery.ui.calendar;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.wicket.Application;
+import org.apache.wicket.IClusterable;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.Session;
+import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.behavior.AbstractAjaxBehavior;
 import org.apache.wicket.request.IRequestCycle;
 import org.apache.wicket.request.IRequestHandler;
 import org.apache.wicket.request.IRequestParameters;
 import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.request.http.WebRequest;
 import org.apache.wicket.request.http.WebResponse;
+import org.apache.wicket.util.string.StringValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.googlecode.wicket.jquery.ui.utils.JsonWriter;
+import com.googlecode.wicket.jquery.ui.utils.MetaDataUtils;
+
 /**
- * Provides the behavior that gets the {@link CalendarEvent}<code>s</code> from the {@link CalendarModel}
+ * Provides the behavior that gets the {@link CalendarEvent}<code>s</code> from the {@link CalendarModel}<br/>
+ * <br/>
+ * Responses are versioned per [start, end] window: the version is a MD5 digest of the events of the window, and is sent as the response ETag,
+ * so that an unchanged window is answered by a <code>304 Not Modified</code>.
+ * If the {@link CalendarModel} provides a revision (see {@link CalendarModel#getRevision()}), the ETag is built upon it and is checked before the events are loaded.<br/>
+ * If the request provides the 'version' parameter (see {@link #getEventSource()}), the response is a delta against that version, in the following format:
+ * <code>{ "version": "...", "added": { key: event, ... }, "changed": { key: event, ... }, "removed": [ keys ] }</code>;
+ * or <code>{ "version": "...", "events": { key: event, ... } }</code> if the version is unknown (ie: first request, or expired version).
+ * Otherwise, the response is the plain array of events.<br/>
+ * Events are keyed per occurrence (id and start date), as the occurrences of a repeating event share the same id.<br/>
+ * <br/>
+ * The event hashes of the last served versions are kept in a cache of the {@link Session}, indexed by version (a version denotes a content),
+ * so that they are not held by the page, and that a client can only get a delta against a version that has been served to its own session.
+ * The cache is bounded by its total number of events, and is not replicated with the session (an expired version results in a full response).
  *
  * @author Sebastien Briquet - sebfz1
  *
@@ -40,6 +73,19 @@ class CalendarModelBehavior extends AbstractAjaxBehavior
 	private static final long serialVersionUID = 1L;
 	private static final Logger LOG = LoggerFactory.getLogger(CalendarModelBehavior.class);
 
+	/** max number of versions for which the event hashes are kept, per session */
+	private static final int MAX_VERSIONS = 16;
+
+	/** max number of event hashes kept, all versions included, per session */
+	private static final int MAX_ENTRIES = 4096;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final MetaDataKey<VersionCache> VERSIONS = new MetaDataKey<VersionCache>() {
+
+		private static final long serialVersionUID = 1L;
+	};
+
 	private CalendarModel model;
 
 	/**
@@ -52,6 +98,31 @@ class CalendarModelBehavior extends AbstractAjaxBehavior
 		this.model = model;
 	}
 
+	/**
+	 * Gets the fullCalendar event source function that requests the deltas of the window being displayed, and applies them to the events kept on the client side
+	 * @return the event source function, as a javascript string
+	 */
+	public String getEventSource()
+	{
+		StringBuilder builder = new StringBuilder("(function() { ");
+
+		builder.append("var $w = {}; ");
+		builder.append("return function(start, end, callback) { ");
+		builder.append("var s = Math.round(start.getTime() / 1000), e = Math.round(end.getTime() / 1000), k = s + '-' + e, $c = $w[k]; ");
+		builder.append("jQuery.ajax({ url: '").append(this.getCallbackUrl()).append("', dataType: 'json', cache: true, data: { start: s, end: e, version: $c ? $c.version : '' }, ");
+		builder.append("success: function(data) { ");
+		builder.append("var map = (data.events || !$c) ? {} : $c.events, list = [], put = function(key, ev) { map[key] = ev; }; ");
+		builder.append("jQuery.each(data.events || {}, put); jQuery.each(data.added || {}, put); jQuery.each(data.changed || {}, put); ");
+		builder.append("jQuery.each(data.removed || [], function(i, key) { delete map[key]; }); ");
+		builder.append("$w[k] = { version: data.version, events: map }; ");
+		builder.append("for (var key in map) { list.push(jQuery.extend({}, map[key])); } "); // fullCalendar alters the events it receives
+		builder.append("callback(list); }, ");
+		builder.append("error: function() { callback([]); } ");
+		builder.append("}); }; })()");
+
+		return builder.toString();
+	}
+
 	@Override
 	public void onRequest()
 	{
@@ -60,6 +131,7 @@ class CalendarModelBehavior extends AbstractAjaxBehavior
 
 		final long start = parameters.getParameterValue("start").toLong(0);
 		final long end = parameters.getParameterValue("end").toLong(0);
+		final StringValue version = parameters.getParameterValue("version");
 
 		if (this.model != null)
 		{
@@ -67,16 +139,17 @@ class CalendarModelBehavior extends AbstractAjaxBehavior
 			this.model.setEnd(new Date(end * 1000));
 		}
 
-		final IRequestHandler handler = this.newRequestHandler();
+		final IRequestHandler handler = this.newRequestHandler(version.isNull() ? null : version.toString(""));
 		requestCycle.scheduleRequestHandlerAfterCurrent(handler);
 	}
 
 	/**
 	 * Gets the new {@link IRequestHandler} that will respond the list of {@link CalendarEvent} in a json format
 	 *
+	 * @param version the version known by the client, or null if the client does not use the delta protocol
 	 * @return the {@link IRequestHandler}
 	 */
-	private IRequestHandler newRequestHandler()
+	private IRequestHandler newRequestHandler(final String version)
 	{
 		return new IRequestHandler()
 		{
@@ -87,33 +160,92 @@ class CalendarModelBehavior extends AbstractAjaxBehavior
 
 				final String encoding = Application.get().getRequestCycleSettings().getResponseRequestEncoding();
 				response.setContentType("text/json; charset=" + encoding);
-				response.disableCaching();
 
-				if (model != null)
+				if (model == null)
 				{
-					List<? extends CalendarEvent> list =  model.getObject(); // calls load()
+					response.disableCaching();
+					return;
+				}
 
-					if (list != null)
+				// null if the client version is unknown, sends all events //
+				final Hashes previous = (version != null) ? CalendarModelBehavior.getVersions().get(version) : null;
+				final String prefix = (previous != null) ? version + "-" : "";
+				final String match = ((WebRequest) requestCycle.getRequest()).getHeader("If-None-Match");
+
+				response.setHeader("Cache-Control", "private, no-cache"); // revalidates each time
+
+				// conditional response, without loading the events //
+				final String revision = model.getRevision();
+
+				if (revision != null)
+				{
+					final String etag = "\"" + prefix + "r" + Snapshot.toHex(Snapshot.newDigest().digest(revision.getBytes(UTF_8))) + "\"";
+					response.setHeader("ETag", etag);
+
+					if (etag.equals(match))
 					{
-						StringBuilder builder = new StringBuilder("[ ");
+						response.setStatus(304);
 
-						int count = 0;
-						for (CalendarEvent event : list)
-						{
-							if (model instanceof ICalendarVisitor)
-							{
-								event.accept((ICalendarVisitor) model); //last chance to set options
-							}
+						return;
+					}
+				}
 
-							if (count++ > 0) { builder.append(", "); }
-							builder.append(event.toString());
-						}
+				Snapshot snapshot = new Snapshot(model.getObject(), model); // calls load()
+				Hashes hashes = null;
+
+				if (version != null)
+				{
+					hashes = snapshot.toHashes();
+					CalendarModelBehavior.getVersions().put(snapshot.version, hashes);
+				}
 
-						builder.append(" ]");
+				// conditional response, against the loaded events //
+				if (revision == null)
+				{
+					final String etag = "\"" + prefix + snapshot.version + "\"";
+					response.setHeader("ETag", etag);
 
-						LOG.debug(builder.toString());
-						response.write(builder);
+					if (etag.equals(match))
+					{
+						response.setStatus(304);
+
+						return;
+					}
+				}
+
+				if (version == null)
+				{
+					response.write("[ ");
+					response.write(snapshot.json);
+					response.write(" ]");
+				}
+				else
+				{
+					response.write("{ \"version\": \"" + snapshot.version + "\", ");
+
+					if (previous == null)
+					{
+						response.write("\"events\": { ");
+
+						for (int i = 0; i < snapshot.keys.length; i++)
+						{
+							if (i > 0) { response.write(", "); }
+							snapshot.write(response, i);
+						}
+
+						response.write(" }");
+					}
+					else
+					{
+						CalendarModelBehavior.writeDelta(response, previous, snapshot, hashes);
 					}
+
+					response.write(" }");
+				}
+
+				if (LOG.isDebugEnabled())
+				{
+					LOG.debug(snapshot.json.toString());
 				}
 			}
 
@@ -123,4 +255,379 @@ class CalendarModelBehavior extends AbstractAjaxBehavior
 			}
 		};
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Gets (or creates) the session-wide cache of served versions<br/>
+	 * The session metadata is only set when the cache is created, so that serving a version does not mark the session as dirty.
+	 * @return the {@link VersionCache}
+	 */
+	private static VersionCache getVersions()
+	{
+		return MetaDataUtils.get(Session.get(), VERSIONS, new MetaDataUtils.IFactory<VersionCache>() {
+
+			@Override
+			public VersionCache create()
+			{
+				return new VersionCache();
+			}
+		});
+	}
+
+	/**
+	 * Writes the added, changed and removed events of the current {@link Snapshot}, compared to the previous one
+	 * @param response the {@link WebResponse}
+	 * @param previous the event {@link Hashes} of the version known by the client
+	 * @param current the current {@link Snapshot}
+	 * @param hashes the event {@link Hashes} of the current {@link Snapshot}
+	 */
+	private static void writeDelta(WebResponse response, Hashes previous, Snapshot current, Hashes hashes)
+	{
+		final int size = current.keys.length;
+		final boolean[] changed = new boolean[size]; // added or changed
+
+		response.write("\"added\": { ");
+
+		for (int i = 0, count = 0; i < size; i++)
+		{
+			int index = previous.indexOf(current.keys[i]);
+
+			if (index < 0)
+			{
+				if (count++ > 0) { response.write(", "); }
+				current.write(response, i);
+			}
+			else
+			{
+				changed[i] = !previous.matches(index, current.digests, i);
+			}
+		}
+
+		response.write(" }, \"changed\": { ");
+
+		for (int i = 0, count = 0; i < size; i++)
+		{
+			if (changed[i])
+			{
+				if (count++ > 0) { response.write(", "); }
+				current.write(response, i);
+			}
+		}
+
+		response.write(" }, \"removed\": [ ");
+
+		StringBuilder builder = new StringBuilder();
+
+		for (String key : previous.keys)
+		{
+			if (hashes.indexOf(key) < 0)
+			{
+				if (builder.length() > 0) { builder.append(", "); }
+				builder.append('"');
+				JsonWriter.escape(key, builder);
+				builder.append('"');
+			}
+		}
+
+		response.write(builder);
+		response.write(" ]");
+	}
+
+
+	/**
+	 * The events of a window, as served to the client.<br/>
+	 * The events are serialized by {@link CalendarEvent#writeTo(JsonWriter)} in a single buffer, in which each event is delimited by its end offset;
+	 * events which class overrides {@link CalendarEvent#toString()} are written as returned by {@link CalendarEvent#toString()}.
+	 * Each event is identified by its occurrence key: the event id and start date, suffixed by a counter in the unlikely case of duplicates.
+	 */
+	private static class Snapshot
+	{
+		private static final int SEPARATOR = 2; // ", "
+
+		private final String version;
+		private final String[] keys;
+		private final long[] digests; // MD5 digests of the event JSON, as pairs of longs
+		private final int[] ends;
+		private final StringBuilder json;
+
+		public Snapshot(List<? extends CalendarEvent> list, CalendarModel model)
+		{
+			final int size = (list != null) ? list.size() : 0;
+
+			this.keys = new String[size];
+			this.digests = new long[size * 2];
+			this.ends = new int[size];
+			this.json = new StringBuilder(size * 128);
+
+			Set<String> used = new HashSet<String>(size * 2);
+
+			JsonWriter writer = new JsonWriter(this.json);
+			MessageDigest event = Snapshot.newDigest();
+			MessageDigest window = Snapshot.newDigest();
+
+			Class<? extends CalendarEvent> type = null;
+			boolean legacy = false;
+
+			for (int i = 0; i < size; i++)
+			{
+				CalendarEvent item = list.get(i);
+
+				if (model instanceof ICalendarVisitor)
+				{
+					item.accept((ICalendarVisitor) model); //last chance to set options
+				}
+
+				if (item.getClass() != type)
+				{
+					type = item.getClass();
+					legacy = CalendarEventSerializer.overridesToString(type);
+				}
+
+				if (legacy)
+				{
+					writer.raw(item.toString()); // the JSON representation was customized by overriding toString()
+				}
+				else
+				{
+					item.writeTo(writer);
+				}
+
+				this.ends[i] = this.json.length();
+				this.keys[i] = Snapshot.key(item, used);
+
+				byte[] hash = this.hash(event, i);
+				this.digests[i * 2] = Snapshot.toLong(hash, 0);
+				this.digests[i * 2 + 1] = Snapshot.toLong(hash, 8);
+
+				window.update(UTF_8.encode(this.keys[i]));
+				window.update((byte) 0);
+				window.update(hash);
+			}
+
+			this.version = Snapshot.toHex(window.digest()) + "." + Integer.toString(size, 36);
+		}
+
+		/**
+		 * Gets a new MD5 {@link MessageDigest}
+		 * @return the {@link MessageDigest}
+		 */
+		private static MessageDigest newDigest()
+		{
+			try
+			{
+				return MessageDigest.getInstance("MD5");
+			}
+			catch (NoSuchAlgorithmException e)
+			{
+				throw new WicketRuntimeException(e);
+			}
+		}
+
+		/**
+		 * Gets the hexadecimal representation of a digest
+		 * @param digest the digest
+		 * @return the hexadecimal string
+		 */
+		private static String toHex(byte[] digest)
+		{
+			StringBuilder builder = new StringBuilder(32);
+
+			for (byte b : digest)
+			{
+				builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+
+			return builder.toString();
+		}
+
+		/**
+		 * Gets the 8 bytes of a digest, from the specified offset, as a long
+		 * @param digest the digest
+		 * @param offset the offset
+		 * @return the long value
+		 */
+		private static long toLong(byte[] digest, int offset)
+		{
+			long value = 0;
+
+			for (int i = offset; i < offset + 8; i++)
+			{
+				value = (value << 8) | (digest[i] & 0xFF);
+			}
+
+			return value;
+		}
+
+		/**
+		 * Gets the unique occurrence key of an event
+		 * @param event the {@link CalendarEvent}
+		 * @param used the keys already in use, to which the key is added
+		 * @return the key
+		 */
+		private static String key(CalendarEvent event, Set<String> used)
+		{
+			final String key = event.getId() + "@" + (event.getStart() != null ? event.getStart().getTime() : "");
+
+			String unique = key;
+
+			for (int n = 1; !used.add(unique); n++)
+			{
+				unique = key + "#" + n;
+			}
+
+			return unique;
+		}
+
+		/**
+		 * Gets the event {@link Hashes} of the snapshot, to be kept as a served version
+		 * @return the {@link Hashes}
+		 */
+		public Hashes toHashes()
+		{
+			final int size = this.keys.length;
+			final Integer[] order = new Integer[size];
+
+			for (int i = 0; i < size; i++)
+			{
+				order[i] = i;
+			}
+
+			Arrays.sort(order, new Comparator<Integer>() {
+
+				@Override
+				public int compare(Integer i, Integer j)
+				{
+					return Snapshot.this.keys[i].compareTo(Snapshot.this.keys[j]);
+				}
+			});
+
+			String[] keys = new String[size];
+			long[] digests = new long[size * 2];
+
+			for (int i = 0; i < size; i++)
+			{
+				int index = order[i];
+
+				keys[i] = this.keys[index];
+				digests[i * 2] = this.digests[index * 2];
+				digests[i * 2 + 1] = this.digests[index * 2 + 1];
+			}
+
+			return new Hashes(keys, digests);
+		}
+
+		private int start(int index)
+		{
+			return (index == 0) ? 0 : this.ends[index - 1] + SEPARATOR;
+		}
+
+		/**
+		 * Gets the MD5 digest of the JSON event
+		 * @param digest the {@link MessageDigest} to use, which is reset
+		 * @param index the event index
+		 * @return the digest
+		 */
+		private byte[] hash(MessageDigest digest, int index)
+		{
+			ByteBuffer bytes = UTF_8.encode(CharBuffer.wrap(this.json, this.start(index), this.ends[index]));
+			digest.update(bytes);
+
+			return digest.digest(); // digest() resets the MessageDigest
+		}
+
+		/**
+		 * Writes the JSON event to the response, as a property named by its occurrence key
+		 * @param response the {@link WebResponse}
+		 * @param index the event index
+		 */
+		public void write(WebResponse response, int index)
+		{
+			response.write("\"" + JsonWriter.escape(this.keys[index]) + "\": ");
+			response.write(CharBuffer.wrap(this.json, this.start(index), this.ends[index]));
+		}
+	}
+
+	/**
+	 * The event hashes of a served version: the occurrence keys, sorted, and the MD5 digest of each event, as a pair of longs
+	 */
+	private static class Hashes
+	{
+		private final String[] keys;
+		private final long[] digests;
+
+		public Hashes(String[] keys, long[] digests)
+		{
+			this.keys = keys;
+			this.digests = digests;
+		}
+
+		public int size()
+		{
+			return this.keys.length;
+		}
+
+		/**
+		 * Gets the index of an occurrence key
+		 * @param key the occurrence key
+		 * @return the index, or a negative value if the key is not found
+		 */
+		public int indexOf(String key)
+		{
+			return Arrays.binarySearch(this.keys, key);
+		}
+
+		/**
+		 * Indicates whether the digest at the specified index equals a digest of another array
+		 * @param index the index of the key
+		 * @param digests the other array of digests
+		 * @param other the index of the other digest
+		 * @return true if the digests are equal
+		 */
+		public boolean matches(int index, long[] digests, int other)
+		{
+			return this.digests[index * 2] == digests[other * 2] && this.digests[index * 2 + 1] == digests[other * 2 + 1];
+		}
+	}
+
+	/**
+	 * The served versions of a session, the least recently used ones being evicted beyond {@link #MAX_VERSIONS} versions or {@link #MAX_ENTRIES} event hashes
+	 */
+	private static class VersionCache implements IClusterable
+	{
+		private static final long serialVersionUID = 1L;
+
+		/** not serialized: the cache is simply emptied if the session is replicated */
+		private transient LinkedHashMap<String, Hashes> map = null;
+		private transient int entries = 0;
+
+		public synchronized Hashes get(String version)
+		{
+			return (this.map != null) ? this.map.get(version) : null;
+		}
+
+		public synchronized void put(String version, Hashes hashes)
+		{
+			if (hashes.size() > MAX_ENTRIES)
+			{
+				return; // the version would evict all others
+			}
+
+			if (this.map == null)
+			{
+				this.map = new LinkedHashMap<String, Hashes>(MAX_VERSIONS * 2, 0.75f, true);
+				this.entries = 0;
+			}
+
+			Hashes replaced = this.map.put(version, hashes);
+			this.entries += hashes.size() - (replaced != null ? replaced.size() : 0);
+
+			// evicts the least recently used versions, the put version being the most recent one //
+			Iterator<Hashes> iterator = this.map.values().iterator();
+
+			while (this.entries > MAX_ENTRIES || this.map.size() > MAX_VERSIONS)
+			{
+				this.entries -= iterator.next().size();
+				iterator.remove();
+			}
+		}
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.calendar;
+
+import java.util.Date;
+import java.util.List;
+
+import org.apache.wicket.IClusterable;
+
+/**
+ * Specifies a source of {@link CalendarEvent}<code>s</code> (ie: rooms, people, holidays) of a {@link MultiSourceCalendarModel}<br/>
+ * <b>Note:</b> Sources are loaded concurrently, on threads other than the request thread: the implementation should be thread-safe and should
+ * neither rely on the request cycle nor on the user session.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public interface ICalendarSource extends IClusterable
+{
+	/**
+	 * Loads the events of the interval
+	 * @param start the start date
+	 * @param end the end date
+	 * @return the list of {@link CalendarEvent}<code>s</code>
+	 */
+	List<? extends CalendarEvent> load(Date start, Date end);
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.calendar;
+
+import java.util.List;
+
+import org.apache.wicket.WicketRuntimeException;
+
+/**
+ * Provides a {@link CalendarModel} which events are retrieved from a {@link CalendarEventIndex}, for the interval defined by {@link #getStart()} and {@link #getEnd()}<br/>
+ * The index is typically shared by the application (ie: held by a DAO or a service), and is not part of the model state.<br/>
+ * <b>Note:</b> the model returns the {@link CalendarEvent} instances held by the index, which are shared by all sessions; they should therefore be considered as immutable
+ * (an event is changed by replacing it in the index). For the same reason, an {@link IndexedCalendarModel} cannot implement {@link ICalendarVisitor}.
+ * <pre>
+ * public class MyCalendarModel extends IndexedCalendarModel
+ * {
+ *     protected CalendarEventIndex&lt;?&gt; getIndex()
+ *     {
+ *         return MyApplication.get().getEventIndex();
+ *     }
+ * }
+ * </pre>
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public abstract class IndexedCalendarModel extends CalendarModel
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor
+	 */
+	public IndexedCalendarModel()
+	{
+		super();
+	}
+
+	/**
+	 * Gets the {@link CalendarEventIndex} of the events
+	 * @return the {@link CalendarEventIndex}
+	 */
+	protected abstract CalendarEventIndex<? extends CalendarEvent> getIndex();
+
+	@Override
+	protected List<? extends CalendarEvent> load()
+	{
+		if (this instanceof ICalendarVisitor)
+		{
+			throw new WicketRuntimeException("An IndexedCalendarModel cannot be an ICalendarVisitor: indexed events are shared and should not be altered");
+		}
+
+		return this.getIndex().query(this.getStart(), this.getEnd());
+	}
+}
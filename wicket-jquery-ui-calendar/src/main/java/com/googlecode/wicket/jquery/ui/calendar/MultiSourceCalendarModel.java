@@ -0,0 +1,315 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.calendar;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.IApplicationListener;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.util.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.googlecode.wicket.jquery.ui.utils.MetaDataUtils;
+
+/**
+ * Provides a {@link CalendarModel} which events are loaded from several {@link ICalendarSource}<code>s</code>.<br/>
+ * Sources are loaded concurrently on a bounded executor, each within its own timeout, and their events are merged into a single list,
+ * so that the load time is the one of the slowest source rather than the sum of all sources.<br/>
+ * A source that fails, times out, or cannot be queued because the executor is saturated, is skipped (see {@link #onError(ICalendarSource, Exception)}),
+ * the events of the other sources are still returned.
+ * <pre>
+ * MultiSourceCalendarModel model = new MultiSourceCalendarModel();
+ * model.add(new RoomsSource(), Duration.seconds(2));
+ * model.add(new HolidaysSource(), Duration.milliseconds(500));
+ * </pre>
+ * <b>Note:</b> Event ids should be unique across sources.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public class MultiSourceCalendarModel extends CalendarModel
+{
+	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LoggerFactory.getLogger(MultiSourceCalendarModel.class);
+
+	/** Default timeout of a source */
+	public static final Duration TIMEOUT = Duration.seconds(5);
+
+	/** Max number of sources loaded at the same time, application-wide */
+	private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+	/** Max number of sources waiting to be loaded, application-wide; beyond this limit, sources are rejected */
+	private static final int QUEUE_SIZE = 256;
+
+	private static final MetaDataKey<ExecutorService> EXECUTOR = new MetaDataKey<ExecutorService>() {
+
+		private static final long serialVersionUID = 1L;
+	};
+
+	/**
+	 * Gets the executor of the application, or creates it if it does not exist yet.<br/>
+	 * The executor is shut down when the application is destroyed.
+	 * @param application the {@link Application}
+	 * @return the {@link ExecutorService}
+	 */
+	private static ExecutorService getExecutor(final Application application)
+	{
+		return MetaDataUtils.get(application, EXECUTOR, new MetaDataUtils.IFactory<ExecutorService>() {
+
+			@Override
+			public ExecutorService create()
+			{
+				application.getApplicationListeners().add(new IApplicationListener() {
+
+					@Override
+					public void onAfterInitialized(Application application)
+					{
+					}
+
+					@Override
+					public void onBeforeDestroyed(Application application)
+					{
+						ExecutorService executor = application.getMetaData(EXECUTOR);
+
+						if (executor != null)
+						{
+							executor.shutdownNow();
+						}
+					}
+				});
+
+				return MultiSourceCalendarModel.newExecutor(application.getName());
+			}
+		});
+	}
+
+	/**
+	 * Gets a new bounded executor
+	 * @param name the application name, used to name the threads
+	 * @return the {@link ExecutorService}
+	 */
+	private static ExecutorService newExecutor(final String name)
+	{
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(QUEUE_SIZE), new ThreadFactory() {
+
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, String.format("%s-calendar-%d", name, this.count.incrementAndGet()));
+				thread.setDaemon(true);
+
+				return thread;
+			}
+		}, new ThreadPoolExecutor.AbortPolicy());
+
+		executor.allowCoreThreadTimeOut(true);
+
+		return executor;
+	}
+
+
+	private final List<ICalendarSource> sources;
+	private final List<Duration> timeouts;
+
+	/**
+	 * Constructor
+	 */
+	public MultiSourceCalendarModel()
+	{
+		this.sources = new ArrayList<ICalendarSource>();
+		this.timeouts = new ArrayList<Duration>();
+	}
+
+	/**
+	 * Adds a source, with the default {@link #TIMEOUT}
+	 * @param source the {@link ICalendarSource}
+	 * @return this
+	 */
+	public MultiSourceCalendarModel add(ICalendarSource source)
+	{
+		return this.add(source, TIMEOUT);
+	}
+
+	/**
+	 * Adds a source
+	 * @param source the {@link ICalendarSource}
+	 * @param timeout the max {@link Duration} the source is waited for
+	 * @return this
+	 */
+	public MultiSourceCalendarModel add(ICalendarSource source, Duration timeout)
+	{
+		this.sources.add(source);
+		this.timeouts.add(timeout);
+
+		return this;
+	}
+
+	/**
+	 * Gets the executor on which sources are loaded
+	 * @return the application-wide bounded executor by default
+	 */
+	protected ExecutorService getExecutor()
+	{
+		return MultiSourceCalendarModel.getExecutor(Application.get());
+	}
+
+	@Override
+	protected List<? extends CalendarEvent> load()
+	{
+		final Date start = this.getStart();
+		final Date end = this.getEnd();
+		final int size = this.sources.size();
+
+		List<CalendarEvent> events = new ArrayList<CalendarEvent>();
+
+		if (size == 0)
+		{
+			return events;
+		}
+
+		// submits all sources, even a single one, so that it is loaded within its timeout //
+		ExecutorService executor = this.getExecutor();
+		List<Future<List<? extends CalendarEvent>>> futures = new ArrayList<Future<List<? extends CalendarEvent>>>(size);
+		final long submitted = System.nanoTime();
+
+		for (ICalendarSource source : this.sources)
+		{
+			try
+			{
+				futures.add(executor.submit(new SourceLoader(source, start, end)));
+			}
+			catch (RejectedExecutionException e)
+			{
+				futures.add(null); // the executor is saturated, the source is skipped rather than loaded without timeout
+				this.onError(source, e);
+			}
+		}
+
+		// waits for all sources, each one within its own timeout, measured from the submission //
+		for (int i = 0; i < size; i++)
+		{
+			ICalendarSource source = this.sources.get(i);
+			Future<List<? extends CalendarEvent>> future = futures.get(i);
+
+			if (future == null)
+			{
+				continue;
+			}
+
+			long remaining = this.timeouts.get(i).getMilliseconds() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submitted);
+
+			try
+			{
+				List<? extends CalendarEvent> list = future.get(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+
+				if (list != null)
+				{
+					events.addAll(list);
+				}
+			}
+			catch (TimeoutException e)
+			{
+				future.cancel(true);
+				this.onError(source, e);
+			}
+			catch (ExecutionException e)
+			{
+				this.onError(source, e);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+
+				for (int j = i; j < size; j++)
+				{
+					if (futures.get(j) != null)
+					{
+						futures.get(j).cancel(true);
+					}
+				}
+
+				break;
+			}
+		}
+
+		return events;
+	}
+
+	// Events //
+	/**
+	 * Triggered when a source has failed, or has not been loaded within its timeout.<br/>
+	 * The events of that source are not part of the result.
+	 * @param source the {@link ICalendarSource}
+	 * @param e the exception ({@link TimeoutException} if the source timed out, {@link RejectedExecutionException} if the executor is saturated)
+	 */
+	protected void onError(ICalendarSource source, Exception e)
+	{
+		if (e instanceof TimeoutException)
+		{
+			LOG.warn("Calendar source timed out: {}", source);
+		}
+		else if (e instanceof RejectedExecutionException)
+		{
+			LOG.warn("Calendar source rejected, the executor is saturated: {}", source);
+		}
+		else
+		{
+			LOG.error("Calendar source failed: " + source, e);
+		}
+	}
+
+
+	/**
+	 * Loads an {@link ICalendarSource} on the executor
+	 */
+	private static class SourceLoader implements Callable<List<? extends CalendarEvent>>
+	{
+		private final ICalendarSource source;
+		private final Date start;
+		private final Date end;
+
+		public SourceLoader(ICalendarSource source, Date start, Date end)
+		{
+			this.source = source;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public List<? extends CalendarEvent> call()
+		{
+			return this.source.load(this.start, this.end);
+		}
+	}
+}
@@ -17,7 +17,11 @@
 package com.googlecode.wicket.jquery.ui;
 
 
+import org.apache.wicket.AttributeModifier;
 import org.apache.wicket.Component;
+import org.apache.wicket.MetaDataKey;
+
+import com.googlecode.wicket.jquery.ui.ajax.JQueryAjaxBehavior;
 
 /**
  * Specifies that the implementing {@link Component} class will use a {@link JQueryBehavior}<br/>
@@ -51,6 +55,14 @@ public interface IJQueryWidget
 	
 	public static class JQueryWidget
 	{
+		/**
+		 * The css class shared by repeated widgets, if the component is in bulk mode
+		 */
+		public static final MetaDataKey<String> BULK_CLASS = new MetaDataKey<String>() {
+
+			private static final long serialVersionUID = 1L;
+		};
+
 		/**
 		 * Helper method that returns the component's html selector (ie: '#myId').
 		 * @param component the {@link Component}
@@ -61,6 +73,27 @@ public interface IJQueryWidget
 			return "#" + component.setOutputMarkupId(true).getMarkupId();
 		}
 		
+		/**
+		 * Helper method that returns the html selector of repeated widgets of the same kind (ie: '.myClass'), and puts the component in bulk mode.<br/>
+		 * The css class is added to the component, so that all the widgets of the class are initialized by a single statement, and the
+		 * callbacks of the {@link JQueryAjaxBehavior}<code>s</code> of the component are resolved through a data attribute (see {@link JQueryAjaxBehavior#CALLBACK_ATTRIBUTE}).<br/>
+		 * <b>Note:</b> The widgets of a class are supposed to share the same options, and to be of the same type, having the same behaviors added in the same order
+		 * (the data attribute of a callback being named after the behavior id). Behaviors overriding {@link JQueryBehavior#$()} cannot be used in bulk mode.
+		 * @param component the {@link Component}
+		 * @param cssClass the css class shared by the widgets
+		 * @return the html selector
+		 */
+		public static String getBulkSelector(Component component, String cssClass)
+		{
+			if (component.getMetaData(BULK_CLASS) == null)
+			{
+				component.add(AttributeModifier.append("class", cssClass));
+				component.setMetaData(BULK_CLASS, cssClass);
+			}
+
+			return "." + cssClass;
+		}
+
 		/**
 		 * Factory method that gets a new {@link JQueryBehavior} by invoking {@link IJQueryWidget#newWidgetBehavior(String)} on the supplied widget.
 		 * @param <T> the type
@@ -72,6 +105,18 @@ public interface IJQueryWidget
 			return widget.newWidgetBehavior(JQueryWidget.getSelector(widget));	
 		}
 
+		/**
+		 * Factory method that gets a new {@link JQueryBehavior} for repeated widgets of the same kind, in bulk mode (see {@link #getBulkSelector(Component, String)}).
+		 * @param <T> the type
+		 * @param widget the {@link IJQueryWidget} object
+		 * @param cssClass the css class shared by the widgets
+		 * @return the {@link JQueryBehavior}
+		 */
+		public static <T extends Component & IJQueryWidget> JQueryBehavior newBulkWidgetBehavior(T widget, String cssClass)
+		{
+			return widget.newWidgetBehavior(JQueryWidget.getBulkSelector(widget, cssClass));
+		}
+
 		/**
 		 * Factory method that gets a new {@link JQueryBehavior} by invoking {@link IJQueryWidget#newWidgetBehavior(String)} on the supplied widget.
 		 * @param widget object implementing the {@link IJQueryWidget} interface.
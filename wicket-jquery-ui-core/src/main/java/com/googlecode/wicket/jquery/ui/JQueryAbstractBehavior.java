@@ -106,6 +106,15 @@ public abstract class JQueryAbstractBehavior extends Behavior
 		}
 
 		// Adds the statement //
+		this.renderStatement(response);
+	}
+
+	/**
+	 * Renders the jQuery statement
+	 * @param response the {@link IHeaderResponse}
+	 */
+	void renderStatement(IHeaderResponse response)
+	{
 		response.renderJavaScript(this.toString(), this.getToken());
 	}
 
@@ -17,16 +17,29 @@
 package com.googlecode.wicket.jquery.ui;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.apache.wicket.Application;
 import org.apache.wicket.Component;
+import org.apache.wicket.MetaDataKey;
 import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.ajax.AjaxRequestTarget;
 import org.apache.wicket.markup.html.IHeaderResponse;
 
+import com.googlecode.wicket.jquery.ui.IJQueryWidget.JQueryWidget;
+import com.googlecode.wicket.jquery.ui.utils.MetaDataUtils;
+
 /**
- * Provides a default implementation of {@link JQueryAbstractBehavior}.
+ * Provides a default implementation of {@link JQueryAbstractBehavior}.<br/>
+ * If the page is rendered through a {@link JQueryHeaderResponse}, and the behavior class does not override {@link #$()}, the widget
+ * is rendered as a (selector, method, options) triple, so that widgets sharing the same method and options are initialized by a single statement.<br/>
+ * If the component is in bulk mode (see {@link JQueryWidget#getBulkSelector(Component, String)}), the statement is shared by all the widgets of the css class,
+ * except in ajax requests, where only the component is initialized and its events are bound. Bulk mode is not supported by behavior classes overriding {@link #$()}.<br/>
+ * If the behavior is lazy (see {@link #setLazy(boolean)}), the statement is deferred until the element first becomes visible in the viewport, or first receives the focus or the mouse.
  *
  * @author Sebastien Briquet - sebfz1
  * @since 1.0
@@ -35,12 +48,83 @@ public class JQueryBehavior extends JQueryAbstractBehavior
 {
 	private static final long serialVersionUID = 1L;
 	private static final String NULL_OPTIONS = "Options have not been defined (null has been supplied to the constructor)";
+	private static final MetaDataKey<ConcurrentHashMap<Class<?>, Boolean>> TEMPLATES = new MetaDataKey<ConcurrentHashMap<Class<?>, Boolean>>() {
+
+		private static final long serialVersionUID = 1L;
+	};
+
+	private static final String LAZY_TOKEN = "wicket-jquery-lazy";
+	private static final String LAZY_SCRIPT = "(function($) { var count = 0; "
+			+ "window.wicketJQueryLazy = window.wicketJQueryLazy || function(selector, init) { "
+			+ "var $e = $(selector), ns = '.wicketlazy' + (count++), done = false, observer = null; "
+			+ "var visible = function() { var $w = $(window), top = $w.scrollTop(), bottom = top + $w.height(); "
+			+ "return $e.filter(':visible').filter(function() { var t = $(this).offset().top; return t < bottom && t + $(this).outerHeight() > top; }).length > 0; }; "
+			+ "var run = function() { if (!done) { done = true; if (observer) { observer.disconnect(); } $e.off(ns); $(window).off(ns); init(); } }; "
+			+ "$e.on('focusin' + ns + ' mouseenter' + ns, run); "
+			+ "if (window.IntersectionObserver) { "
+			+ "observer = new IntersectionObserver(function(entries) { for (var i = 0; i < entries.length; i++) { if (entries[i].isIntersecting) { run(); return; } } }); "
+			+ "$e.each(function() { observer.observe(this); }); "
+			+ "} else { "
+			+ "$(window).on('scroll' + ns + ' resize' + ns, function() { if (visible()) { run(); } }); "
+			+ "if (visible()) { run(); } "
+			+ "} }; })(jQuery);";
+
+	/**
+	 * Indicates whether the statement of a behavior class is the default widget statement, that is, whether the class does not override {@link #$()}.<br/>
+	 * The result is memoized per class, in the {@link Application} metadata.
+	 * @param type the behavior class
+	 * @return true or false
+	 */
+	private static boolean isTemplate(Class<?> type)
+	{
+		if (!Application.exists())
+		{
+			return !JQueryBehavior.overridesStatement(type); // not memoized
+		}
+
+		ConcurrentMap<Class<?>, Boolean> templates = MetaDataUtils.getMap(Application.get(), TEMPLATES);
+		Boolean template = templates.get(type);
+
+		if (template == null)
+		{
+			template = Boolean.valueOf(!JQueryBehavior.overridesStatement(type));
+			templates.put(type, template);
+		}
+
+		return template.booleanValue();
+	}
+
+	/**
+	 * Indicates whether a behavior class overrides {@link #$()}
+	 * @param type the behavior class
+	 * @return true or false
+	 */
+	private static boolean overridesStatement(Class<?> type)
+	{
+		for (Class<?> clazz = type; clazz != JQueryBehavior.class; clazz = clazz.getSuperclass())
+		{
+			try
+			{
+				clazz.getDeclaredMethod("$");
+				return true;
+			}
+			catch (NoSuchMethodException e)
+			{
+				// not overridden in this class
+			}
+		}
+
+		return false;
+	}
 
 	protected final String selector;
 	protected final String method;
 	protected final Options options;
 
-	private List<String> events = null;
+	private Map<String, StringBuilder> events = null; // selector -> chained event handlers
+	private boolean bulk = false;
+	private boolean lazy = false;
+	private Component component = null; // the bound component, in bulk mode
 
 	/**
 	 * Constructor
@@ -82,23 +166,140 @@ public class JQueryBehavior extends JQueryAbstractBehavior
 	{
 		super.renderHead(component, response);
 
-		// renders javascript events
+		// renders javascript events, the elements of a selector being looked up once
 		if (this.events != null)
 		{
+			// in bulk ajax requests, binds the events of this widget only, not the whole class //
+			final boolean partial = this.bulk && AjaxRequestTarget.get() != null;
+			final String markupId = partial ? component.getMarkupId() : null;
+
 			StringBuilder statements = new StringBuilder("jQuery(function() { ");
 
-			for (String event : this.events)
+			for (Entry<String, StringBuilder> entry : this.events.entrySet())
 			{
-				statements.append(event);
+				String selector = (partial && entry.getKey().equals(this.selector)) ? "#" + markupId : entry.getKey();
+				statements.append("jQuery('").append(selector).append("')").append(entry.getValue()).append(";");
 			}
 
 			statements.append(" });");
 
-			response.renderJavaScript(statements, this.getToken() + "-events");
+			response.renderJavaScript(statements, (partial ? String.format("jquery-%s-%s", this.method, markupId) : this.getToken()) + "-events");
+		}
+	}
+
+	@Override
+	public void bind(Component component)
+	{
+		super.bind(component);
+
+		String cssClass = component.getMetaData(JQueryWidget.BULK_CLASS);
+		this.bulk = (cssClass != null) && this.selector.equals("." + cssClass);
+		this.component = this.bulk ? component : null;
+
+		if (this.bulk && !JQueryBehavior.isTemplate(this.getClass()))
+		{
+			// the statement could not be restricted to the component on ajax re-render, and would initialize the whole css class again
+			throw new WicketRuntimeException(String.format("%s overrides $() and cannot be used in bulk mode", this.getClass().getName()));
+		}
+	}
+
+	@Override
+	String getToken()
+	{
+		if (this.bulk)
+		{
+			return String.format("jquery-%s-%s", this.method, this.selector.substring(1)); // shared by the widgets of the class
+		}
+
+		return super.getToken();
+	}
+
+	@Override
+	public void beforeRender(Component component)
+	{
+		AjaxRequestTarget target = AjaxRequestTarget.get();
+
+		if (target != null)
+		{
+			if (this.bulk)
+			{
+				// initializes this widget only, not the whole class
+				String selector = this.getWidgetSelector();
+				String statement = JQueryBehavior.$(selector, this.method, this.options.toString());
+
+				target.appendJavaScript(this.lazy ? this.toLazyStatement(selector, statement) : statement);
+			}
+			else
+			{
+				target.appendJavaScript(this.lazy ? this.toLazyStatement(this.selector, this.toString()) : this.toString());
+			}
+		}
+	}
+
+	@Override
+	void renderStatement(IHeaderResponse response)
+	{
+		if (this.lazy)
+		{
+			response.renderJavaScript(LAZY_SCRIPT, LAZY_TOKEN);
+		}
+
+		if (this.bulk && AjaxRequestTarget.get() != null)
+		{
+			return; // the component only is initialized, by #beforeRender(Component); the shared statement would initialize the whole css class again
+		}
+
+		if (this.lazy)
+		{
+			response.renderJavaScript(this.toLazyStatement(this.selector, this.toString()), this.getToken());
+		}
+		else if (response instanceof JQueryHeaderResponse && AjaxRequestTarget.get() == null && JQueryBehavior.isTemplate(this.getClass()))
+		{
+			((JQueryHeaderResponse) response).renderWidget(this.getToken(), this.selector, this.method, this.options);
+		}
+		else
+		{
+			super.renderStatement(response);
 		}
 	}
 
+	/**
+	 * Gets the statement that defers the supplied statement until one of the selected elements first becomes visible, or first receives the focus or the mouse<br/>
+	 * The statement is unwrapped only if it consists of a single domready handler; otherwise (ie: several handlers, the dependent ones being
+	 * appended by an overridden {@link #$()}), the whole statement is deferred as is, so that its handlers are still executed in order, after the initialization.
+	 * @param selector the html selector of the elements
+	 * @param statement the statement, like 'jQuery(function() { ... });'
+	 * @return the lazy statement
+	 */
+	private String toLazyStatement(String selector, String statement)
+	{
+		return String.format("jQuery(function() { wicketJQueryLazy('%s', function() { %s }); });", selector, JQueryHeaderResponse.unwrap(statement));
+	}
+
 	// Properties //
+	/**
+	 * Indicates whether the widget initialization is deferred
+	 * @return false by default
+	 */
+	public boolean isLazy()
+	{
+		return this.lazy;
+	}
+
+	/**
+	 * Sets whether the widget initialization is deferred until the element first becomes visible in the viewport (using an IntersectionObserver if supported
+	 * by the browser, or the scroll position otherwise), or first receives the focus or the mouse.<br/>
+	 * This is intended for widgets that are below the fold or inside hidden panels.
+	 * @param lazy true to defer the initialization
+	 * @return the {@link JQueryBehavior} (this)
+	 */
+	public JQueryBehavior setLazy(boolean lazy)
+	{
+		this.lazy = lazy;
+
+		return this;
+	}
+
 	/**
 	 * Gets a behavior option, referenced by its key
 	 * @param key the option key
@@ -166,16 +367,30 @@ public class JQueryBehavior extends JQueryAbstractBehavior
 	{
 		if (this.events == null)
 		{
-			this.events = new ArrayList<String>();
+			this.events = new LinkedHashMap<String, StringBuilder>();
+		}
+
+		StringBuilder handlers = this.events.get(selector);
+
+		if (handlers == null)
+		{
+			handlers = new StringBuilder();
+			this.events.put(selector, handlers);
 		}
 
-		this.events.add(String.format("jQuery('%s').on('%s', %s);", selector, event, callback));
+		handlers.append(String.format(".on('%s', %s)", event, callback));
 	}
 
 	@Override
 	protected String $()
 	{
-		return JQueryBehavior.$(this.selector, this.method, this.options.toString());
+		StringBuilder builder = new StringBuilder(48 + this.selector.length() + this.method.length() + this.options.length());
+
+		builder.append("jQuery(function() { jQuery('").append(this.selector).append("').").append(this.method).append("(");
+		this.options.appendTo(builder);
+		builder.append("); });");
+
+		return builder.toString();
 	}
 
 	/**
@@ -191,13 +406,28 @@ public class JQueryBehavior extends JQueryAbstractBehavior
 
 	/**
 	 * Gets the jQuery statement.<br/>
-	 * <b>Warning: </b> This method is *not* called by this behavior directly (only {@link #$()} is).
+	 * <b>Warning: </b> This method is *not* called by this behavior directly (only {@link #$()} is).<br/>
+	 * In bulk mode, the statement targets the bound component only, not the whole css class.
 	 * @param options the options to be supplied to the current method
 	 * @return Statement like 'jQuery(function() { ... })'
 	 */
 	public String $(String options)
 	{
-		return JQueryBehavior.$(this.selector, this.method, options);
+		return JQueryBehavior.$(this.getWidgetSelector(), this.method, options);
+	}
+
+	/**
+	 * Gets the selector of the statements targeting this widget only
+	 * @return the markup id of the bound component in bulk mode, the selector otherwise
+	 */
+	private String getWidgetSelector()
+	{
+		if (this.bulk)
+		{
+			return "#" + this.component.setOutputMarkupId(true).getMarkupId();
+		}
+
+		return this.selector;
 	}
 
 	/**
@@ -0,0 +1,361 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.markup.html.DecoratingHeaderResponse;
+import org.apache.wicket.markup.html.IHeaderResponse;
+import org.apache.wicket.markup.html.IHeaderResponseDecorator;
+import org.apache.wicket.request.resource.ResourceReference;
+
+import com.googlecode.wicket.jquery.ui.resource.JavaScriptBundleReference;
+
+/**
+ * Provides an {@link IHeaderResponse} that merges the statements of all jQuery behaviors of a page into a single domready script.<br/>
+ * Rather than rendering one script block - and one domready handler - per behavior, the domready statements are collected while the header is rendered,
+ * deduplicated by id, and written in one block when the header response is closed. Each statement is guarded, so that a failing statement does not prevent
+ * the next ones from being executed, and keeps its own function scope, as it had in its own domready handler. Other scripts, including jQuery statements that are not domready handlers, are rendered as usual.<br/>
+ * Widgets of a {@link JQueryBehavior} sharing the same method and options (ie: the rows of a grid) are initialized by a single statement,
+ * selecting all of them at once: <code>jQuery('#id1, #id2, ...').each(...)</code>, in which each widget is still guarded on its own.<br/>
+ * <b>Note:</b> such a statement is rendered at the position of the first widget of the group, so the later widgets of the group are initialized
+ * before the statements that were rendered between the first widget and them.<br/>
+ * If {@link JavaScriptBundleReference}<code>s</code> are supplied, the bundle is rendered in place of the first of its references required by the page, and its other references are ignored.<br/>
+ * It is installed by the application:
+ * <code><pre>
+ * public class MyApplication extends WebApplication
+ * {
+ *     public void init()
+ *     {
+ *         super.init();
+ *
+ *         this.setHeaderResponseDecorator(new JQueryHeaderResponse.Decorator());
+ *     }
+ * }
+ * <pre></code>
+ *
+ * <b>Note:</b> Statements rendered during an ajax request are not merged.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public class JQueryHeaderResponse extends DecoratingHeaderResponse
+{
+	/** the id of the merged script */
+	public static final String TOKEN = "jquery-statements";
+
+	private static final String PREFIX = "jquery-"; // see JQueryAbstractBehavior#getToken()
+	private static final String DOMREADY_START = "jQuery(function() { ";
+	private static final String DOMREADY_END = " });";
+	private static final String TRY = "\ntry { ";
+	private static final String CATCH = " } catch (e) { if (window.console) { console.error(e); } }";
+	private static final String SCOPE_START = "(function() { ";
+	private static final String SCOPE_END = " }).call(this);";
+
+	private final JavaScriptBundleReference[] bundles;
+	private final Map<String, Object> statements = new LinkedHashMap<String, Object>(); // id -> statement or widget
+	private final Map<String, Widget> widgets = new HashMap<String, Widget>(); // method & options -> widget
+
+	/**
+	 * Constructor
+	 * @param response the decorated {@link IHeaderResponse}
+	 */
+	public JQueryHeaderResponse(IHeaderResponse response)
+	{
+		this(response, new JavaScriptBundleReference[] {});
+	}
+
+	/**
+	 * Constructor
+	 * @param response the decorated {@link IHeaderResponse}
+	 * @param bundles the {@link JavaScriptBundleReference}<code>s</code>
+	 */
+	public JQueryHeaderResponse(IHeaderResponse response, JavaScriptBundleReference... bundles)
+	{
+		super(response);
+
+		this.bundles = bundles;
+	}
+
+	/**
+	 * Gets the bundle containing the reference, if any
+	 * @param reference the {@link ResourceReference}
+	 * @return the {@link JavaScriptBundleReference} or null
+	 */
+	private JavaScriptBundleReference getBundle(ResourceReference reference)
+	{
+		for (JavaScriptBundleReference bundle : this.bundles)
+		{
+			if (bundle.contains(reference))
+			{
+				return bundle;
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public void renderJavaScriptReference(ResourceReference reference)
+	{
+		JavaScriptBundleReference bundle = this.getBundle(reference);
+
+		super.renderJavaScriptReference(bundle != null ? bundle : reference);
+	}
+
+	@Override
+	public void renderJavaScriptReference(ResourceReference reference, String id)
+	{
+		JavaScriptBundleReference bundle = this.getBundle(reference);
+
+		if (bundle != null)
+		{
+			super.renderJavaScriptReference(bundle);
+		}
+		else
+		{
+			super.renderJavaScriptReference(reference, id);
+		}
+	}
+
+	@Override
+	public void renderJavaScript(CharSequence javascript, String id)
+	{
+		if (id != null && id.startsWith(PREFIX) && AjaxRequestTarget.get() == null && JQueryHeaderResponse.isDomReady(javascript.toString()))
+		{
+			if (!this.statements.containsKey(id))
+			{
+				this.statements.put(id, JQueryHeaderResponse.unwrap(javascript.toString()));
+			}
+		}
+		else
+		{
+			super.renderJavaScript(javascript, id);
+		}
+	}
+
+	/**
+	 * Renders the statement of a widget.<br/>
+	 * The widget is initialized together with the widgets of the same method and options, at the position of the first of them.
+	 *
+	 * @param id the statement id
+	 * @param selector the html selector (ie: "#myId")
+	 * @param method the jQuery method
+	 * @param options the {@link Options}
+	 */
+	public void renderWidget(String id, String selector, String method, Options options)
+	{
+		if (!this.statements.containsKey(id))
+		{
+			final String json = options.toString();
+			final String key = method + ":" + json;
+
+			Widget widget = this.widgets.get(key);
+
+			if (widget == null)
+			{
+				widget = new Widget(method, json);
+				this.widgets.put(key, widget);
+			}
+
+			widget.selectors.add(selector);
+			this.statements.put(id, widget);
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		if (!this.statements.isEmpty())
+		{
+			StringBuilder builder = new StringBuilder(this.statements.size() * 64);
+			builder.append("jQuery(function() {");
+
+			for (Object statement : this.statements.values())
+			{
+				if (statement instanceof Widget)
+				{
+					((Widget) statement).appendTo(builder);
+				}
+				else
+				{
+					builder.append(TRY).append(SCOPE_START).append(statement).append(SCOPE_END).append(CATCH);
+				}
+			}
+
+			builder.append("\n});");
+
+			super.renderJavaScript(builder, TOKEN);
+
+			this.statements.clear();
+			this.widgets.clear();
+		}
+
+		super.close();
+	}
+
+	/**
+	 * Indicates whether a statement is wrapped in a single domready handler<br/>
+	 * The brace opening the handler should be closed by the last brace of the statement, so that a statement made of several handlers,
+	 * like 'jQuery(function() { ... }); jQuery(function() { ... });', is not considered as a single one.
+	 * @param statement the statement
+	 * @return true if the statement is like 'jQuery(function() { ... });'
+	 */
+	static boolean isDomReady(String statement)
+	{
+		if (statement.length() < DOMREADY_START.length() + DOMREADY_END.length() || !statement.startsWith(DOMREADY_START) || !statement.endsWith(DOMREADY_END))
+		{
+			return false;
+		}
+
+		final int end = statement.length() - DOMREADY_END.length() + 1; // index of the closing brace
+		int depth = 1;
+		char quote = 0;
+
+		for (int i = DOMREADY_START.length(); i < end; i++)
+		{
+			char c = statement.charAt(i);
+
+			if (quote != 0)
+			{
+				if (c == '\\')
+				{
+					i++; // skips the escaped char
+				}
+				else if (c == quote)
+				{
+					quote = 0;
+				}
+			}
+			else if (c == '\'' || c == '"')
+			{
+				quote = c;
+			}
+			else if (c == '{')
+			{
+				depth++;
+			}
+			else if (c == '}' && --depth == 0)
+			{
+				return false; // the handler is closed before the end of the statement
+			}
+		}
+
+		return quote == 0 && depth == 1;
+	}
+
+	/**
+	 * Removes the domready handler wrapping a statement, if the statement is wrapped in a single one (see {@link #isDomReady(String)})
+	 * @param statement the statement, like 'jQuery(function() { ... });'
+	 * @return the wrapped statement
+	 */
+	static String unwrap(String statement)
+	{
+		if (JQueryHeaderResponse.isDomReady(statement))
+		{
+			return statement.substring(DOMREADY_START.length(), statement.length() - DOMREADY_END.length());
+		}
+
+		return statement;
+	}
+
+
+	/**
+	 * The widgets of a same method and options
+	 */
+	private static class Widget
+	{
+		private final String method;
+		private final String options;
+		private final Set<String> selectors = new LinkedHashSet<String>();
+		private boolean rendered = false;
+
+		public Widget(String method, String options)
+		{
+			this.method = method;
+			this.options = options;
+		}
+
+		/**
+		 * Appends the statement, only once<br/>
+		 * If there are several widgets, the options literal is rendered once, and each widget is initialized with its own deep copy of it, in its own guard,
+		 * so that a failing widget does not prevent the others from being initialized.
+		 * @param builder the {@link StringBuilder}
+		 */
+		public void appendTo(StringBuilder builder)
+		{
+			if (!this.rendered)
+			{
+				if (this.selectors.size() == 1)
+				{
+					builder.append(TRY).append("jQuery('").append(this.selectors.iterator().next()).append("').");
+					builder.append(this.method).append('(').append(this.options).append(");").append(CATCH);
+				}
+				else
+				{
+					builder.append(TRY).append(SCOPE_START).append("var o = ").append(this.options).append("; jQuery('");
+
+					int count = 0;
+					for (String selector : this.selectors)
+					{
+						if (count++ > 0) { builder.append(", "); }
+						builder.append(selector);
+					}
+
+					builder.append("').each(function() { try { jQuery(this).").append(this.method).append("(jQuery.extend(true, {}, o));").append(CATCH).append(" });");
+					builder.append(SCOPE_END).append(CATCH);
+				}
+
+				this.rendered = true;
+			}
+		}
+	}
+
+	/**
+	 * Provides the {@link IHeaderResponseDecorator} that decorates the header responses with a {@link JQueryHeaderResponse}
+	 */
+	public static class Decorator implements IHeaderResponseDecorator
+	{
+		private final JavaScriptBundleReference[] bundles;
+
+		/**
+		 * Constructor, should be called from Application#init()
+		 * @param bundles the {@link JavaScriptBundleReference}<code>s</code> to be rendered instead of their references
+		 */
+		public Decorator(JavaScriptBundleReference... bundles)
+		{
+			this.bundles = bundles;
+
+			for (JavaScriptBundleReference bundle : bundles)
+			{
+				Application.get().getResourceReferenceRegistry().registerResourceReference(bundle);
+			}
+		}
+
+		@Override
+		public IHeaderResponse decorate(IHeaderResponse response)
+		{
+			return new JQueryHeaderResponse(response, this.bundles);
+		}
+	}
+}
@@ -16,28 +16,99 @@
  */
 package com.googlecode.wicket.jquery.ui;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.wicket.Application;
 import org.apache.wicket.IClusterable;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.WicketRuntimeException;
+
+import com.googlecode.wicket.jquery.ui.utils.DateUtils;
+import com.googlecode.wicket.jquery.ui.utils.MetaDataUtils;
 
 /**
- * Provides a wrapper on a {@link Map} that will contains jQuery behavior options (key/value).<br/>
- * the {@link #toString()} methods returns the JSON representation of the options.
+ * Provides a compact map that will contains jQuery behavior options (key/value).<br/>
+ * the {@link #toString()} methods returns the JSON representation of the options, which can also be appended to an {@link Appendable} (see {@link #appendTo(Appendable)}).
+ * Options are rendered in insertion order, so that identical options always produce the same output.<br/>
+ * <br/>
+ * Options are kept in insertion order in a flat array, with interned keys, and have a compact externalized form.<br/>
+ * Default options shared by several widgets can be registered once (see {@link #register(String, Options)}), then supplied to
+ * {@link #Options(Options)}: the defaults are not copied but referenced, only the overridden options being stored per instance.
+ * The defaults are serialized once per stream (ie: once per page), then referenced.
+ * <code><pre>
+ * private static final Options DEFAULTS = Options.register("my-widget", new Options("autoOpen", false).set("modal", true));
+ *
+ * this.options = new Options(DEFAULTS).set("title", Options.asString(title));
+ * </pre></code>
  *
  * @author Sebastien Briquet - sebfz1
  *
  */
-public class Options implements IClusterable
+public class Options implements IClusterable, Externalizable
 {
 	private static final long serialVersionUID = 1L;
+	private static final MetaDataKey<ConcurrentHashMap<String, Options>> SHARED = new MetaDataKey<ConcurrentHashMap<String, Options>>() {
+
+		private static final long serialVersionUID = 1L;
+	};
+
+	private static final String[] NO_KEYS = new String[0];
+	private static final Serializable[] NO_VALUES = new Serializable[0];
+
+	// externalized form //
+	private static final byte LOCAL = 0;
+	private static final byte NAMED = 1;
+	private static final byte NULL_VALUE = 0;
+	private static final byte STRING_VALUE = 1;
+	private static final byte OBJECT_VALUE = 2;
+	private static final int MAX_UTF_LENGTH = 65535 / 3; // a char is encoded on 3 bytes at most
+
+	/**
+	 * Registers shared, read-only, default options, in the current {@link Application}<br/>
+	 * Deserialized defaults are resolved to the registered instance of the same name and content, if any.
+	 * If there is no current application, the options are shared but not registered.
+	 * @param name the unique name of the defaults
+	 * @param options the default options
+	 * @return the registered (read-only) {@link Options}, to be supplied to {@link #Options(Options)}
+	 * @throws WicketRuntimeException if the name is already registered with different options
+	 */
+	public static Options register(String name, Options options)
+	{
+		Options shared = new Options();
+		shared.putAll(options);
+		shared.name = name;
+
+		if (!Application.exists())
+		{
+			return shared;
+		}
+
+		Options existing = MetaDataUtils.getMap(Application.get(), SHARED).putIfAbsent(name, shared);
+
+		if (existing == null)
+		{
+			return shared;
+		}
+
+		if (!existing.toMap().equals(shared.toMap()))
+		{
+			throw new WicketRuntimeException(String.format("Options '%s' are already registered with different options: %s", name, existing));
+		}
+
+		return existing;
+	}
 
 	/**
 	 * Converts a string representation of an object to its javascript representation. ie: "myvalue" (with the double quote)
@@ -66,8 +137,28 @@ public class Options implements IClusterable
 	 */
 	public static String asDate(Date date)
 	{
-		DateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mmZ");
-		return Options.asString(df.format(date));
+		return Options.asString(DateUtils.toISOString(date));
+	}
+
+	/**
+	 * Converts a date to its ISO8601/javascript representation, in the specified time zone. ie: "2009-11-05T13:15+0100" (with the double quote)
+	 * @param date the date to convert
+	 * @param timezone the {@link TimeZone}
+	 * @return the JSON value
+	 */
+	public static String asDate(Date date, TimeZone timezone)
+	{
+		return Options.asString(DateUtils.toISOString(date.getTime(), timezone));
+	}
+
+	/**
+	 * Converts a date to its epoch representation, the number of milliseconds since January 1, 1970 UTC. ie: 1257426930000 (without double quote)
+	 * @param date the date to convert
+	 * @return the JSON value
+	 */
+	public static String asEpoch(Date date)
+	{
+		return Long.toString(date.getTime());
 	}
 
 	/**
@@ -93,14 +184,36 @@ public class Options implements IClusterable
 	}
 
 
-	private final Map<String, Serializable> map;
+	private String name = null; // not null if these options are shared
+	private transient volatile String json = null; // cached JSON representation of shared options
+	private Options defaults = null; // shared options
+	private String[] keys = NO_KEYS;
+	private Serializable[] values = NO_VALUES; // a null value overrides a default option, removing it
+	private int size = 0;
 
 	/**
 	 * Constructor.
 	 */
 	public Options()
 	{
-		this.map = new HashMap<String, Serializable>();
+	}
+
+	/**
+	 * Constructor, based on default options<br/>
+	 * If the defaults are shared (see {@link #register(String, Options)}), they are referenced rather than copied.
+	 *
+	 * @param defaults the default options
+	 */
+	public Options(Options defaults)
+	{
+		if (defaults.name != null)
+		{
+			this.defaults = defaults;
+		}
+		else
+		{
+			this.putAll(defaults);
+		}
 	}
 
 	/**
@@ -122,7 +235,14 @@ public class Options implements IClusterable
 	 */
 	public Serializable get(String key)
 	{
-		return this.map.get(key);
+		int index = this.indexOf(key);
+
+		if (index >= 0)
+		{
+			return this.values[index];
+		}
+
+		return (this.defaults != null) ? this.defaults.get(key) : null;
 	}
 
 	/**
@@ -135,25 +255,322 @@ public class Options implements IClusterable
 	 */
 	public Options set(String key, Serializable value)
 	{
-		if (value != null)
+		if (this.name != null)
+		{
+			throw new WicketRuntimeException(String.format("Options '%s' are shared and cannot be modified", this.name));
+		}
+
+		int index = this.indexOf(key);
+		boolean isDefault = (this.defaults != null) && (this.defaults.indexOf(key) >= 0);
+
+		if (value == null && !isDefault)
 		{
-			this.map.put(key, value);
+			if (index >= 0)
+			{
+				this.remove(index);
+			}
+		}
+		else if (index >= 0)
+		{
+			this.values[index] = value;
 		}
 		else
 		{
-			this.map.remove(key);
+			this.add(key.intern(), value);
 		}
 
 		return this;
 	}
 
 	/**
-	 * Gets a read-only entry set of options
-	 * @return an unmodifiable set of internal map entries
+	 * Gets a read-only entry set of options, in insertion order (default options first)
+	 * @return an unmodifiable set of entries
 	 */
 	public Set<Entry<String, Serializable>> entries()
 	{
-		return Collections.unmodifiableSet(this.map.entrySet());
+		return Collections.unmodifiableSet(this.toMap().entrySet());
+	}
+
+	/**
+	 * Gets the options as a {@link Map}, in insertion order (default options first)
+	 * @return a new {@link LinkedHashMap}
+	 */
+	private Map<String, Serializable> toMap()
+	{
+		Map<String, Serializable> map = new LinkedHashMap<String, Serializable>();
+
+		if (this.defaults != null)
+		{
+			for (int i = 0; i < this.defaults.size; i++)
+			{
+				map.put(this.defaults.keys[i], this.defaults.values[i]);
+			}
+		}
+
+		for (int i = 0; i < this.size; i++)
+		{
+			if (this.values[i] != null)
+			{
+				map.put(this.keys[i], this.values[i]);
+			}
+			else
+			{
+				map.remove(this.keys[i]);
+			}
+		}
+
+		return map;
+	}
+
+	/**
+	 * Copies the options
+	 * @param options the {@link Options} to copy
+	 */
+	private void putAll(Options options)
+	{
+		for (Entry<String, Serializable> entry : options.entries())
+		{
+			this.set(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Gets the index of a key
+	 * @param key the option key
+	 * @return the index or -1 if not found
+	 */
+	private int indexOf(String key)
+	{
+		for (int i = 0; i < this.size; i++)
+		{
+			if (this.keys[i].equals(key))
+			{
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	private void add(String key, Serializable value)
+	{
+		if (this.size == this.keys.length)
+		{
+			int capacity = (this.size < 4) ? 4 : this.size * 2;
+
+			String[] keys = new String[capacity];
+			Serializable[] values = new Serializable[capacity];
+
+			System.arraycopy(this.keys, 0, keys, 0, this.size);
+			System.arraycopy(this.values, 0, values, 0, this.size);
+
+			this.keys = keys;
+			this.values = values;
+		}
+
+		this.keys[this.size] = key;
+		this.values[this.size] = value;
+		this.size++;
+	}
+
+	private void remove(int index)
+	{
+		int count = this.size - index - 1;
+
+		if (count > 0)
+		{
+			System.arraycopy(this.keys, index + 1, this.keys, index, count);
+			System.arraycopy(this.values, index + 1, this.values, index, count);
+		}
+
+		this.size--;
+		this.keys[this.size] = null;
+		this.values[this.size] = null;
+	}
+
+	// Externalizable //
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException
+	{
+		if (this.name != null)
+		{
+			out.writeByte(NAMED);
+			out.writeUTF(this.name);
+		}
+		else
+		{
+			out.writeByte(LOCAL);
+			out.writeObject(this.defaults); // written once per stream, then referenced
+		}
+
+		out.writeInt(this.size);
+
+		for (int i = 0; i < this.size; i++)
+		{
+			out.writeUTF(this.keys[i]);
+
+			Serializable value = this.values[i];
+
+			if (value == null)
+			{
+				out.writeByte(NULL_VALUE);
+			}
+			else if (value instanceof String && ((String) value).length() <= MAX_UTF_LENGTH)
+			{
+				out.writeByte(STRING_VALUE);
+				out.writeUTF((String) value);
+			}
+			else
+			{
+				out.writeByte(OBJECT_VALUE);
+				out.writeObject(value);
+			}
+		}
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+	{
+		if (in.readByte() == NAMED)
+		{
+			this.name = in.readUTF(); // resolved by readResolve()
+		}
+		else
+		{
+			this.defaults = (Options) in.readObject();
+		}
+
+		final int count = in.readInt();
+		this.keys = (count > 0) ? new String[count] : NO_KEYS;
+		this.values = (count > 0) ? new Serializable[count] : NO_VALUES;
+
+		for (int i = 0; i < count; i++)
+		{
+			this.keys[i] = in.readUTF().intern();
+
+			switch (in.readByte())
+			{
+				case STRING_VALUE:
+					this.values[i] = in.readUTF();
+					break;
+
+				case OBJECT_VALUE:
+					this.values[i] = (Serializable) in.readObject();
+					break;
+
+				default:
+					this.values[i] = null;
+			}
+		}
+
+		this.size = count;
+	}
+
+	/**
+	 * Resolves deserialized shared options to the instance registered in the current {@link Application}, if it has the same content.<br/>
+	 * Otherwise (ie: the options are not registered yet, or have changed since the serialization), the deserialized options are kept.
+	 * @return the {@link Options}
+	 */
+	protected Object readResolve()
+	{
+		if (this.name != null && Application.exists())
+		{
+			Options registered = MetaDataUtils.getMap(Application.get(), SHARED).get(this.name);
+
+			if (registered != null && registered.toMap().equals(this.toMap()))
+			{
+				return registered;
+			}
+		}
+
+		return this;
+	}
+
+	/**
+	 * Appends the JSON representation of the Options, in insertion order (default options first)
+	 *
+	 * @param appendable the {@link Appendable} (ie: a {@link StringBuilder} or a {@link java.io.Writer})
+	 * @return the {@link Appendable}
+	 * @throws WicketRuntimeException if an {@link IOException} occurs
+	 */
+	public <A extends Appendable> A appendTo(A appendable)
+	{
+		try
+		{
+			appendable.append('{');
+
+			int count = 0;
+
+			if (this.defaults != null)
+			{
+				for (int i = 0; i < this.defaults.size; i++)
+				{
+					String key = this.defaults.keys[i];
+					int index = this.indexOf(key);
+
+					count = Options.append(appendable, count, key, (index >= 0) ? this.values[index] : this.defaults.values[i]);
+				}
+			}
+
+			for (int i = 0; i < this.size; i++)
+			{
+				if (this.defaults == null || this.defaults.indexOf(this.keys[i]) < 0)
+				{
+					count = Options.append(appendable, count, this.keys[i], this.values[i]);
+				}
+			}
+
+			appendable.append('}');
+		}
+		catch (IOException e)
+		{
+			throw new WicketRuntimeException(e);
+		}
+
+		return appendable;
+	}
+
+	/**
+	 * Appends an option, if its value is not null
+	 * @return the number of options appended so far
+	 */
+	private static int append(Appendable appendable, int count, String key, Serializable value) throws IOException
+	{
+		if (value == null)
+		{
+			return count;
+		}
+
+		if (count > 0)
+		{
+			appendable.append(", ");
+		}
+
+		appendable.append('"').append(key).append("\": ").append(value.toString());
+
+		return count + 1;
+	}
+
+	/**
+	 * Gets the estimated length of the JSON representation, used to pre-size buffers
+	 * @return the estimated length
+	 */
+	public int length()
+	{
+		int length = 2;
+
+		if (this.defaults != null)
+		{
+			length += this.defaults.length();
+		}
+
+		for (int i = 0; i < this.size; i++)
+		{
+			Serializable value = this.values[i];
+			length += this.keys[i].length() + 6 + ((value instanceof String) ? ((String) value).length() : 8);
+		}
+
+		return length;
 	}
 
 	/**
@@ -162,15 +579,23 @@ public class Options implements IClusterable
 	@Override
 	public String toString()
 	{
-		StringBuilder builder = new StringBuilder("{");
+		if (this.name != null)
+		{
+			String json = this.json;
+
+			if (json == null)
+			{
+				this.json = json = this.appendTo(new StringBuilder(this.length())).toString();
+			}
+
+			return json; // shared options are read-only
+		}
 
-		int i = 0;
-		for (Entry<String, Serializable> entry : this.map.entrySet())
+		if (this.defaults != null && this.size == 0)
 		{
-			if (i++ > 0) { builder.append(", "); }
-			builder.append("\"").append(entry.getKey()).append("\": ").append(entry.getValue());
+			return this.defaults.toString();
 		}
 
-		return builder.append("}").toString();
+		return this.appendTo(new StringBuilder(this.length())).toString();
 	}
 }
\ No newline at end of file
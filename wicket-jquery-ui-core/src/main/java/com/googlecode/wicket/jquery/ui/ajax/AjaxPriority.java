@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.ajax;
+
+import org.apache.wicket.ajax.AjaxChannel;
+
+/**
+ * Indicates the priority of the callbacks of a {@link JQueryAjaxBehavior}, which determines the {@link AjaxChannel} they are sent on.<br/>
+ * Callbacks of a given channel are processed one after the other on the client side, so a priority prevents latency-critical callbacks from waiting behind bulk ones.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public enum AjaxPriority
+{
+	/**
+	 * The callbacks are sent on a channel dedicated to the component, so they never wait for a request of another component
+	 */
+	HIGH,
+
+	/**
+	 * The callbacks are sent on the Wicket default channel (default)
+	 */
+	NORMAL,
+
+	/**
+	 * The callbacks are sent on a shared background channel, on which only the last pending callback is kept (see {@link AjaxChannel.Type#DROP})
+	 */
+	LOW;
+}
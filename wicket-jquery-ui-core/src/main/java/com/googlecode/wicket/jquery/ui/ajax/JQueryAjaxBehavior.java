@@ -17,19 +17,30 @@
 package com.googlecode.wicket.jquery.ui.ajax;
 
 import org.apache.wicket.Component;
+import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.ajax.AbstractDefaultAjaxBehavior;
+import org.apache.wicket.ajax.AjaxChannel;
 import org.apache.wicket.ajax.AjaxRequestTarget;
 import org.apache.wicket.ajax.IAjaxCallDecorator;
 import org.apache.wicket.ajax.calldecorator.AjaxCallThrottlingDecorator;
 import org.apache.wicket.event.Broadcast;
 import org.apache.wicket.event.IEventSink;
+import org.apache.wicket.markup.ComponentTag;
+import org.apache.wicket.markup.html.IHeaderResponse;
 import org.apache.wicket.util.time.Duration;
 
+import com.googlecode.wicket.jquery.ui.IJQueryWidget.JQueryWidget;
 import com.googlecode.wicket.jquery.ui.JQueryEvent;
+import com.googlecode.wicket.jquery.ui.settings.JQueryAjaxSettings;
 
 /**
  * Base class for implementing AJAX GET calls on JQuery components<br />
  * The 'source' constructor argument is the {@link Component} to which the event returned by {@link #newEvent(AjaxRequestTarget)} will be broadcasted.<br/>
+ * The {@link AjaxChannel} of the callback is determined by {@link #getPriority()}, unless a channel is configured for the source type (see {@link JQueryAjaxSettings#setChannel(Class, AjaxChannel)}).<br/>
+ * If the component is in bulk mode (see {@link JQueryWidget#getBulkSelector(Component, String)}), the callback url is rendered in a data attribute of the component tag,
+ * from which the callback script resolves it, so that the script is the same for all the widgets of the css class. If the callback is not called in the context
+ * of an element having that attribute (ie: from a timer), the call is skipped. High priority callbacks are queued on a channel shared by the widgets of the css class.<br/>
+ * If batching is enabled (see {@link JQueryAjaxSettings#setBatchDelay(Duration)}), the callback is queued and dispatched by the page {@link JQueryAjaxDispatcher}.<br/>
  * <pre>
 public class MyJQueryLabel extends Label implements IJQueryWidget
 {
@@ -110,6 +121,13 @@ public abstract class JQueryAjaxBehavior extends AbstractDefaultAjaxBehavior
 {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * The data attribute prefix of the callback url, in bulk mode. The attribute name is suffixed by the behavior id.<br/>
+	 * As the callback script is shared by the widgets of the css class, the behavior is supposed to have the same id in all of them,
+	 * that is, the widgets of a css class are supposed to have the same behaviors, added in the same order.
+	 */
+	public static final String CALLBACK_ATTRIBUTE = "data-wicket-callback-";
+
 	private final Component source;
 	private final Duration duration;
 
@@ -139,6 +157,87 @@ public abstract class JQueryAjaxBehavior extends AbstractDefaultAjaxBehavior
 		this.source.send(this.getSink(), this.getBroadcast(), this.newEvent(target));
 	}
 
+	/**
+	 * Gets the {@link AjaxPriority} of the callback
+	 * @return the priority configured for the source type (see {@link JQueryAjaxSettings#setPriority(Class, AjaxPriority)}), or {@link AjaxPriority#NORMAL} by default
+	 */
+	protected AjaxPriority getPriority()
+	{
+		AjaxPriority priority = JQueryAjaxSettings.getPriority(this.source.getClass());
+
+		return (priority != null) ? priority : AjaxPriority.NORMAL;
+	}
+
+	@Override
+	protected AjaxChannel getChannel()
+	{
+		AjaxChannel channel = JQueryAjaxSettings.getChannel(this.source.getClass());
+
+		if (channel != null)
+		{
+			return channel;
+		}
+
+		switch (this.getPriority())
+		{
+			case HIGH:
+				if (this.isBulk())
+				{
+					// the script, hence the channel, is shared by the widgets of the css class
+					return new AjaxChannel("jquery-bulk-" + this.getComponent().getMetaData(JQueryWidget.BULK_CLASS), AjaxChannel.Type.QUEUE);
+				}
+
+				return new AjaxChannel("jquery-" + this.source.getMarkupId(), AjaxChannel.Type.QUEUE);
+
+			case LOW:
+				return new AjaxChannel("jquery-low", AjaxChannel.Type.DROP);
+
+			default:
+				return super.getChannel();
+		}
+	}
+
+	/**
+	 * Indicates whether the callback can be queued and dispatched by the {@link JQueryAjaxDispatcher}, when batching is enabled.<br/>
+	 * Only callbacks issuing a plain ajax GET, without throttling, on the default channel ({@link AjaxPriority#NORMAL}) are batched.
+	 * Callbacks having an {@link IAjaxCallDecorator}, a success or failure script, or a specific precondition are not batched either, as these do not apply to the batch.
+	 * @return true by default
+	 */
+	protected boolean isBatchable()
+	{
+		return true;
+	}
+
+	/**
+	 * Indicates whether the component is in bulk mode
+	 * @return true or false
+	 */
+	private boolean isBulk()
+	{
+		return this.getComponent().getMetaData(JQueryWidget.BULK_CLASS) != null;
+	}
+
+	/**
+	 * Gets the name of the data attribute of the callback url, in bulk mode
+	 * @return the attribute name
+	 */
+	private String getCallbackAttribute()
+	{
+		return CALLBACK_ATTRIBUTE + this.getComponent().getBehaviorId(this);
+	}
+
+	/**
+	 * Indicates whether the callback is actually batched
+	 * @return true or false
+	 */
+	private boolean isBatched()
+	{
+		return !this.isBulk() && JQueryAjaxSettings.getBatchDelay() != null && this.duration == Duration.NONE && this.isBatchable()
+				&& this.getPriority() == AjaxPriority.NORMAL && JQueryAjaxSettings.getChannel(this.source.getClass()) == null
+				&& this.getAjaxCallDecorator() == null && this.getSuccessScript() == null && this.getFailureScript() == null
+				&& String.valueOf(this.getPreconditionScript()).equals(String.valueOf(super.getPreconditionScript())); // the default precondition is checked on the server side
+	}
+
 	/**
 	 * Gets the broadcast to be used in {@link #respond(AjaxRequestTarget)}
 	 * @return {@link Broadcast#EXACT} by default
@@ -187,6 +286,86 @@ public abstract class JQueryAjaxBehavior extends AbstractDefaultAjaxBehavior
 		return super.getCallbackScript();
 	}
 
+	@Override
+	protected CharSequence generateCallbackScript(CharSequence partialCall)
+	{
+		if (this.isBulk())
+		{
+			final String url = this.getCallbackUrl() + "";
+			final String call = partialCall.toString();
+			final int index = call.indexOf("('" + url);
+
+			if (index < 0)
+			{
+				throw new WicketRuntimeException(String.format("The callback url of %s cannot be resolved in bulk mode, the ajax call is not recognized: %s", this.getClass().getName(), call));
+			}
+
+			// 'this' is the element in jQuery UI events, or the widget in Kendo UI events; the call is skipped by the precondition if no element has the attribute
+			final String attribute = this.getCallbackAttribute();
+			final String expression = String.format("jQuery(this.element || this).closest('[%s]').attr('%s')", attribute, attribute);
+
+			return super.generateCallbackScript(call.substring(0, index + 1) + expression + " + '" + call.substring(index + 2 + url.length()));
+		}
+
+		if (this.isBatched())
+		{
+			final String prefix = "wicketAjaxGet('" + this.getCallbackUrl();
+			final String call = partialCall.toString();
+
+			if (call.startsWith(prefix))
+			{
+				return JQueryAjaxDispatcher.getQueueScript(this.getComponent(), this, "'" + call.substring(prefix.length()));
+			}
+		}
+
+		return super.generateCallbackScript(partialCall);
+	}
+
+	@Override
+	protected CharSequence getPreconditionScript()
+	{
+		if (this.isBulk())
+		{
+			// the script is shared by the widgets of the css class, the callback url is resolved from the element (see #generateCallbackScript(CharSequence))
+			return String.format("return jQuery(this.element || this).closest('[%s]').length > 0;", this.getCallbackAttribute());
+		}
+
+		return super.getPreconditionScript();
+	}
+
+	@Override
+	protected void onComponentTag(ComponentTag tag)
+	{
+		super.onComponentTag(tag);
+
+		if (this.isBulk())
+		{
+			tag.put(this.getCallbackAttribute(), this.getCallbackUrl());
+		}
+	}
+
+	@Override
+	public void onConfigure(Component component)
+	{
+		super.onConfigure(component);
+
+		if (this.isBatched())
+		{
+			JQueryAjaxDispatcher.get(component.getPage());
+		}
+	}
+
+	@Override
+	public void renderHead(Component component, IHeaderResponse response)
+	{
+		super.renderHead(component, response);
+
+		if (this.isBatched())
+		{
+			JQueryAjaxDispatcher.get(component.getPage()).renderDispatcher(response, JQueryAjaxSettings.getBatchDelay());
+		}
+	}
+
 	@Override
 	protected IAjaxCallDecorator getAjaxCallDecorator()
 	{
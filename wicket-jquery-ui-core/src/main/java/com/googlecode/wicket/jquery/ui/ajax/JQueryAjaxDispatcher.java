@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.ajax;
+
+import java.util.List;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.Page;
+import org.apache.wicket.ajax.AbstractDefaultAjaxBehavior;
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.behavior.Behavior;
+import org.apache.wicket.markup.html.IHeaderResponse;
+import org.apache.wicket.request.Url;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.request.http.WebRequest;
+import org.apache.wicket.util.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.googlecode.wicket.jquery.ui.settings.JQueryAjaxSettings;
+
+/**
+ * Provides the page behavior that dispatches batched {@link JQueryAjaxBehavior} callbacks.<br/>
+ * When batching is enabled (see {@link JQueryAjaxSettings#setBatchDelay(Duration)}), {@link JQueryAjaxBehavior} callbacks do not issue
+ * their own request, but are queued on the client side; the queue is sent as a single request once the batch window has elapsed.
+ * The events are then replayed on the server side, in order, each one to its own behavior, with the same {@link AjaxRequestTarget}.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public class JQueryAjaxDispatcher extends AbstractDefaultAjaxBehavior
+{
+	private static final long serialVersionUID = 1L;
+	private static final Logger LOG = LoggerFactory.getLogger(JQueryAjaxDispatcher.class);
+
+	private static final String PARAM = "events";
+	private static final String SEPARATOR = "|";
+
+	/**
+	 * Gets the {@link JQueryAjaxDispatcher} of the page, or adds it if it does not exist yet
+	 * @param page the {@link Page}
+	 * @return the {@link JQueryAjaxDispatcher}
+	 */
+	public static JQueryAjaxDispatcher get(Page page)
+	{
+		List<JQueryAjaxDispatcher> behaviors = page.getBehaviors(JQueryAjaxDispatcher.class);
+
+		if (behaviors.isEmpty())
+		{
+			JQueryAjaxDispatcher dispatcher = new JQueryAjaxDispatcher();
+			page.add(dispatcher);
+
+			return dispatcher;
+		}
+
+		return behaviors.get(0);
+	}
+
+	/**
+	 * Gets the javascript statement that queues a callback of a {@link JQueryAjaxBehavior}
+	 * @param component the component to which the behavior is bound
+	 * @param behavior the {@link JQueryAjaxBehavior}
+	 * @param parameters the javascript expression of the callback query string (ie: <code>'&amp;date=' + date.getTime()</code>), without the closing parenthesis
+	 * @return the javascript statement
+	 */
+	static String getQueueScript(Component component, Behavior behavior, CharSequence parameters)
+	{
+		return String.format("wicketJQueryDispatcher.push('%s%s%d%s', %s);", component.getPageRelativePath(), SEPARATOR, component.getBehaviorId(behavior), SEPARATOR, parameters);
+	}
+
+	/**
+	 * Constructor
+	 */
+	private JQueryAjaxDispatcher()
+	{
+	}
+
+	/**
+	 * Renders the client-side dispatcher
+	 * @param response the {@link IHeaderResponse}
+	 * @param delay the batch {@link Duration}
+	 */
+	void renderDispatcher(IHeaderResponse response, Duration delay)
+	{
+		// keeps the queued events on ajax re-render, but always updates the functions (callback url, delay) //
+		StringBuilder builder = new StringBuilder("(function() { var $d = window.wicketJQueryDispatcher = window.wicketJQueryDispatcher || { queue: [], pending: false }; ");
+
+		if (delay == null || delay.getMilliseconds() <= 0)
+		{
+			builder.append("$d.schedule = window.requestAnimationFrame ? function(f) { window.requestAnimationFrame(f); } : function(f) { window.setTimeout(f, 16); }; ");
+		}
+		else
+		{
+			builder.append("$d.schedule = function(f) { window.setTimeout(f, ").append(delay.getMilliseconds()).append("); }; ");
+		}
+
+		builder.append("$d.push = function(behavior, parameters) { ");
+		builder.append("this.queue.push(behavior + '").append(SEPARATOR).append("' + parameters); ");
+		builder.append("if (!this.pending) { var d = this; this.pending = true; this.schedule(function() { d.flush(); }); } }; ");
+		builder.append("$d.flush = function() { ");
+		builder.append("var events = this.queue; this.queue = []; this.pending = false; ");
+		builder.append("if (events.length > 0) { ").append(this.getCallbackScript()).append(" } ");
+		builder.append("}; })();");
+
+		response.renderJavaScript(builder, JQueryAjaxDispatcher.class.getName());
+	}
+
+	@Override
+	public CharSequence getCallbackScript()
+	{
+		return this.generateCallbackScript("wicketAjaxPost('" + this.getCallbackUrl() + "', '" + PARAM + "=' + encodeURIComponent(events.join('\\n'))");
+	}
+
+	@Override
+	protected void respond(AjaxRequestTarget target)
+	{
+		final RequestCycle requestCycle = RequestCycle.get();
+		final WebRequest request = (WebRequest) requestCycle.getRequest();
+		final String events = request.getPostParameters().getParameterValue(PARAM).toString("");
+
+		for (String event : events.split("\n"))
+		{
+			String[] values = event.split("\\" + SEPARATOR, 3);
+
+			if (values.length != 3)
+			{
+				continue;
+			}
+
+			JQueryAjaxBehavior behavior = this.getBehavior(values[0], values[1]);
+
+			if (behavior != null)
+			{
+				requestCycle.setRequest(request.cloneWithUrl(JQueryAjaxDispatcher.newUrl(request, values[2])));
+
+				try
+				{
+					behavior.respond(target);
+				}
+				finally
+				{
+					requestCycle.setRequest(request);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the {@link JQueryAjaxBehavior} that has queued an event
+	 * @param path the page relative path of the component
+	 * @param id the behavior id
+	 * @return the {@link JQueryAjaxBehavior} or null if the component or the behavior is not found, or cannot be called
+	 */
+	private JQueryAjaxBehavior getBehavior(String path, String id)
+	{
+		Page page = this.getComponent().getPage();
+		Component component = (path.length() == 0) ? page : page.get(path);
+
+		if (component == null || !(component.isEnabledInHierarchy() && component.isVisibleInHierarchy()))
+		{
+			LOG.warn("Batched event ignored, component not found or not callable: {}", path);
+			return null;
+		}
+
+		try
+		{
+			Behavior behavior = component.getBehaviorById(Integer.parseInt(id));
+
+			if (behavior instanceof JQueryAjaxBehavior && behavior.isEnabled(component))
+			{
+				return (JQueryAjaxBehavior) behavior;
+			}
+		}
+		catch (RuntimeException e)
+		{
+			LOG.warn("Batched event ignored, behavior not found: {}", id);
+			return null;
+		}
+
+		LOG.warn("Batched event ignored, behavior not callable: {}", id);
+		return null;
+	}
+
+	/**
+	 * Gets the url of a replayed event, which query parameters are the event ones
+	 * @param request the batch {@link WebRequest}
+	 * @param parameters the event query string
+	 * @return the {@link Url}
+	 */
+	private static Url newUrl(WebRequest request, String parameters)
+	{
+		Url url = new Url(request.getUrl());
+		url.getQueryParameters().clear();
+
+		if (parameters.length() > 0)
+		{
+			String query = parameters.startsWith("&") ? parameters.substring(1) : parameters;
+			url.getQueryParameters().addAll(Url.parse("?" + query, request.getCharset()).getQueryParameters());
+		}
+
+		return url;
+	}
+}
@@ -24,9 +24,12 @@ import org.apache.wicket.ajax.AbstractDefaultAjaxBehavior;
 import org.apache.wicket.ajax.AjaxRequestTarget;
 import org.apache.wicket.request.IRequestCycle;
 import org.apache.wicket.request.IRequestHandler;
+import org.apache.wicket.request.Response;
 import org.apache.wicket.request.cycle.RequestCycle;
 import org.apache.wicket.request.http.WebResponse;
+
 import com.googlecode.wicket.jquery.ui.renderer.ITextRenderer;
+import com.googlecode.wicket.jquery.ui.utils.JsonWriter;
 
 /**
  * Provides the {@link AbstractDefaultAjaxBehavior} for the {@link AutoCompleteTextField}
@@ -39,7 +42,6 @@ abstract class AutoCompleteBehavior<T> extends AbstractDefaultAjaxBehavior
 {
 	private static final long serialVersionUID = 1L;
 	private static final String QUERY = "term";
-	private static final String QUOTE = "\"";
 
 	private final ITextRenderer<? super T> renderer;
 
@@ -64,6 +66,15 @@ abstract class AutoCompleteBehavior<T> extends AbstractDefaultAjaxBehavior
 		return Collections.emptyList();
 	}
 
+	/**
+	 * Gets the {@link IChoiceResolver} that provides the key of each choice, written as the item id in the JSON response
+	 * @return null by default, meaning that the item id is the 1-based index of the choice
+	 */
+	protected IChoiceResolver<? super T> getResolver()
+	{
+		return null;
+	}
+
 
 	@Override
 	protected void respond(AjaxRequestTarget target)
@@ -76,7 +87,7 @@ abstract class AutoCompleteBehavior<T> extends AbstractDefaultAjaxBehavior
 	}
 
 	/**
-	 * Gets a new {@link IRequestHandler} that will call {@link #getChoices(String)} and will build be JSON response corresponding to the specified 'input' argument.
+	 * Gets a new {@link IRequestHandler} that will call {@link #getChoices(String)} and will stream the JSON response corresponding to the specified 'input' argument.
 	 * @param input user input
 	 * @return a new {@link IRequestHandler}
 	 */
@@ -98,33 +109,7 @@ abstract class AutoCompleteBehavior<T> extends AbstractDefaultAjaxBehavior
 
 				if (choices != null)
 				{
-					StringBuilder builder = new StringBuilder("[ ");
-
-					int index = 0;
-					for (T choice : choices)
-					{
-						if (index++ > 0) { builder.append(", "); }
-
-						builder.append("{ ");
-						builder.append(QUOTE).append("id").append(QUOTE).append(": ").append(QUOTE).append(Integer.toString(index)).append(QUOTE); /* id is a reserved word */
-						builder.append(", ");
-						builder.append(QUOTE).append("value").append(QUOTE).append(": ").append(QUOTE).append(renderer.getText(choice)).append(QUOTE); /* value is a reserved word */
-
-						if (properties != null)
-						{
-							for (String property : properties)
-							{
-								builder.append(", ");
-								builder.append(QUOTE).append(property).append(QUOTE).append(": ").append(QUOTE).append(renderer.getText(choice, property)).append(QUOTE);
-							}
-						}
-
-						builder.append(" }");
-					}
-
-					builder.append(" ]");
-
-					response.write(builder);
+					AutoCompleteBehavior.write(response, choices, renderer, properties, AutoCompleteBehavior.this.getResolver());
 				}
 			}
 
@@ -134,4 +119,42 @@ abstract class AutoCompleteBehavior<T> extends AbstractDefaultAjaxBehavior
 			}
 		};
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Streams the JSON representation of the choices to the {@link Response}<br/>
+	 * Each choice is written as { "id": "key", "value": "text", "property": "text", ... }, where key is either provided by the {@link IChoiceResolver} or is the 1-based index of the choice.
+	 * @param <T> the type of the choices
+	 * @param response the {@link Response}
+	 * @param choices the list of choices
+	 * @param renderer the {@link ITextRenderer}
+	 * @param properties the additional properties to be written, or null
+	 * @param resolver the {@link IChoiceResolver}, or null
+	 */
+	static <T> void write(Response response, List<T> choices, ITextRenderer<? super T> renderer, List<String> properties, IChoiceResolver<? super T> resolver)
+	{
+		JsonWriter writer = new JsonWriter(response);
+		writer.beginArray();
+
+		int index = 0;
+		for (T choice : choices)
+		{
+			writer.beginObject();
+			index++;
+			writer.property("id", resolver != null ? resolver.getKey(choice) : Integer.toString(index)); /* id is a reserved word */
+			writer.property("value", renderer.getText(choice)); /* value is a reserved word */
+
+			if (properties != null)
+			{
+				for (String property : properties)
+				{
+					writer.property(property, renderer.getText(choice, property));
+				}
+			}
+
+			writer.endObject(); // flushes to the response when the buffer threshold is reached
+		}
+
+		writer.endArray();
+		writer.flush();
+	}
+}
@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.form.autocomplete;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.IClusterable;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.Session;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.util.time.Duration;
+
+import com.googlecode.wicket.jquery.ui.renderer.ITextRenderer;
+import com.googlecode.wicket.jquery.ui.utils.MetaDataUtils;
+
+/**
+ * Provides a size-bounded (LRU) and time-bounded (TTL) cache of choices, keyed by the user input.<br/>
+ * It can be returned by {@link AutoCompleteTextField#getCache()} so that {@link AutoCompleteTextField#getChoices(String)} is not called again for an input that has recently been answered.<br/>
+ * <br/>
+ * If the cached result of an input is <i>complete</i> (ie: not truncated to a max number of rows, see {@link AutoCompleteTextField#isComplete(String, List)}),
+ * a longer input starting with the same characters is answered by filtering that result in memory: the text of each choice, as returned by the
+ * field's {@link ITextRenderer}, is tested against the input by the cache's {@link IChoiceMatcher}, which should reflect the criteria used by {@link AutoCompleteTextField#getChoices(String)}.
+ * <pre>
+ * protected AutoCompleteCache&lt;Genre&gt; getCache()
+ * {
+ *     return AutoCompleteCache.get(Scope.APPLICATION, "genres", Genre.class, 500, Duration.minutes(5), AutoCompleteCache.CONTAINS);
+ * }
+ * </pre>
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ * @param <T> the type of the choices
+ */
+public class AutoCompleteCache<T> implements IClusterable
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Indicates where a named {@link AutoCompleteCache} is stored
+	 */
+	public enum Scope
+	{
+		/** the cache is shared by all users of the application */
+		APPLICATION,
+		/** the cache is bound to the user session */
+		SESSION
+	}
+
+	/** Matches choices which text starts with the input, case insensitive. A null text never matches */
+	public static final IChoiceMatcher STARTS_WITH = new IChoiceMatcher() {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean matches(String text, String input)
+		{
+			return text != null && text.toLowerCase().startsWith(input.toLowerCase());
+		}
+	};
+
+	/** Matches choices which text contains the input, case insensitive. A null text never matches */
+	public static final IChoiceMatcher CONTAINS = new IChoiceMatcher() {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean matches(String text, String input)
+		{
+			return text != null && text.toLowerCase().contains(input.toLowerCase());
+		}
+	};
+
+	private static final MetaDataKey<ConcurrentHashMap<String, AutoCompleteCache<?>>> CACHES = new MetaDataKey<ConcurrentHashMap<String, AutoCompleteCache<?>>>() {
+
+		private static final long serialVersionUID = 1L;
+	};
+
+	/**
+	 * Gets the named cache for the specified scope, or creates it if it does not exist yet.<br/>
+	 * Cached results are refined using the {@link #STARTS_WITH} matcher.
+	 * @param <T> the type of the choices
+	 * @param scope the {@link Scope}
+	 * @param name the name of the cache, which should be unique within the scope
+	 * @param type the type of the choices
+	 * @param capacity the max number of inputs to be kept in cache
+	 * @param timeToLive the {@link Duration} after which a cached result expires
+	 * @return the {@link AutoCompleteCache}
+	 * @throws WicketRuntimeException if a cache of the same name exists with different settings
+	 */
+	public static <T> AutoCompleteCache<T> get(Scope scope, String name, Class<T> type, int capacity, Duration timeToLive)
+	{
+		return AutoCompleteCache.get(scope, name, type, capacity, timeToLive, STARTS_WITH);
+	}
+
+	/**
+	 * Gets the named cache for the specified scope, or creates it if it does not exist yet
+	 * @param <T> the type of the choices
+	 * @param scope the {@link Scope}
+	 * @param name the name of the cache, which should be unique within the scope
+	 * @param type the type of the choices
+	 * @param capacity the max number of inputs to be kept in cache
+	 * @param timeToLive the {@link Duration} after which a cached result expires
+	 * @param matcher the {@link IChoiceMatcher} used to refine cached results, compared by equals() to the one of an existing cache (ie: a constant)
+	 * @return the {@link AutoCompleteCache}
+	 * @throws WicketRuntimeException if a cache of the same name exists with different settings
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> AutoCompleteCache<T> get(Scope scope, String name, Class<T> type, int capacity, Duration timeToLive, IChoiceMatcher matcher)
+	{
+		ConcurrentHashMap<String, AutoCompleteCache<?>> caches = AutoCompleteCache.getCaches(scope);
+		AutoCompleteCache<?> cache = caches.get(name);
+
+		if (cache == null)
+		{
+			AutoCompleteCache<T> created = new AutoCompleteCache<T>(capacity, timeToLive, matcher);
+			created.type = type;
+
+			cache = caches.putIfAbsent(name, created);
+
+			if (cache == null)
+			{
+				return created;
+			}
+		}
+
+		if (cache.type != type || cache.capacity != capacity || cache.timeToLive != timeToLive.getMilliseconds() || !(cache.matcher == null ? matcher == null : cache.matcher.equals(matcher)))
+		{
+			throw new WicketRuntimeException(String.format("AutoCompleteCache '%s' is already registered with different settings (type: %s, capacity: %d, time to live: %dms)",
+					name, cache.type != null ? cache.type.getName() : null, cache.capacity, cache.timeToLive));
+		}
+
+		return (AutoCompleteCache<T>) cache;
+	}
+
+	/**
+	 * Gets (or creates) the map of named caches for the specified scope
+	 * @param scope the {@link Scope}
+	 * @return the map of named caches
+	 */
+	private static ConcurrentHashMap<String, AutoCompleteCache<?>> getCaches(Scope scope)
+	{
+		if (scope == Scope.SESSION)
+		{
+			return MetaDataUtils.getMap(Session.get(), CACHES);
+		}
+
+		return MetaDataUtils.getMap(Application.get(), CACHES);
+	}
+
+
+	private final int capacity;
+	private final long timeToLive;
+	private final IChoiceMatcher matcher;
+	private Class<?> type = null; // the type of the choices, if the cache is named (see #get(Scope, String, Class, int, Duration, IChoiceMatcher))
+
+	/** not serialized: the cache is simply emptied if the session is replicated */
+	private transient Map<String, CacheEntry<T>> map;
+
+	/**
+	 * Constructor, cached results are refined using the {@link #STARTS_WITH} matcher
+	 * @param capacity the max number of inputs to be kept in cache
+	 * @param timeToLive the {@link Duration} after which a cached result expires
+	 */
+	public AutoCompleteCache(int capacity, Duration timeToLive)
+	{
+		this(capacity, timeToLive, STARTS_WITH);
+	}
+
+	/**
+	 * Constructor
+	 * @param capacity the max number of inputs to be kept in cache
+	 * @param timeToLive the {@link Duration} after which a cached result expires
+	 * @param matcher the {@link IChoiceMatcher} used to refine cached results
+	 */
+	public AutoCompleteCache(int capacity, Duration timeToLive, IChoiceMatcher matcher)
+	{
+		this.capacity = capacity;
+		this.timeToLive = timeToLive.getMilliseconds();
+		this.matcher = matcher;
+	}
+
+	private Map<String, CacheEntry<T>> getMap()
+	{
+		if (this.map == null)
+		{
+			this.map = new LinkedHashMap<String, CacheEntry<T>>(16, 0.75f, true) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, CacheEntry<T>> eldest)
+				{
+					return this.size() > AutoCompleteCache.this.capacity;
+				}
+			};
+		}
+
+		return this.map;
+	}
+
+	/**
+	 * Gets the cached choices for the specified input.<br/>
+	 * If the input itself is not cached, the longest cached input it starts with is looked up. If its result is complete, it is filtered and returned.
+	 * @param input the user input
+	 * @param renderer the {@link ITextRenderer} that provides the text of the choices to be matched
+	 * @return the choices, or null if the input could not be answered from the cache
+	 */
+	public synchronized List<T> get(String input, ITextRenderer<? super T> renderer)
+	{
+		if (input == null)
+		{
+			return null;
+		}
+
+		final long now = System.currentTimeMillis();
+		CacheEntry<T> entry = this.lookup(input, now);
+
+		if (entry != null)
+		{
+			return entry.choices;
+		}
+
+		// prefix refinement //
+		for (int length = input.length() - 1; length > 0; length--)
+		{
+			entry = this.lookup(input.substring(0, length), now);
+
+			if (entry != null && entry.complete)
+			{
+				List<T> choices = new ArrayList<T>();
+
+				for (T choice : entry.choices)
+				{
+					if (this.matches(renderer.getText(choice), input))
+					{
+						choices.add(choice);
+					}
+				}
+
+				// a subset of a complete result is complete as well, but shares the expiry of its origin
+				entry = new CacheEntry<T>(Collections.unmodifiableList(choices), true, entry.expiry);
+				this.getMap().put(input, entry);
+
+				return entry.choices;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Gets the non-expired entry corresponding to an input
+	 * @param input the user input
+	 * @param now the current time
+	 * @return the {@link CacheEntry} or null
+	 */
+	private CacheEntry<T> lookup(String input, long now)
+	{
+		CacheEntry<T> entry = this.getMap().get(input);
+
+		if (entry != null && entry.expiry < now)
+		{
+			this.getMap().remove(input);
+
+			return null;
+		}
+
+		return entry;
+	}
+
+	/**
+	 * Puts choices in cache
+	 * @param input the user input
+	 * @param choices the choices that have been retrieved for the input
+	 * @param complete indicates whether the choices are all the matching choices (ie: not truncated)
+	 */
+	public synchronized void put(String input, List<T> choices, boolean complete)
+	{
+		if (input != null && choices != null)
+		{
+			List<T> list = Collections.unmodifiableList(new ArrayList<T>(choices));
+			this.getMap().put(input, new CacheEntry<T>(list, complete, System.currentTimeMillis() + this.timeToLive));
+		}
+	}
+
+	/**
+	 * Removes all cached choices
+	 */
+	public synchronized void clear()
+	{
+		this.getMap().clear();
+	}
+
+	/**
+	 * Indicates whether a choice of a complete cached result matches a longer input. It is used for prefix refinement.
+	 * @param text the textual representation of the choice
+	 * @param input the user input
+	 * @return by default, the result of the {@link IChoiceMatcher} supplied to the constructor
+	 */
+	protected boolean matches(String text, String input)
+	{
+		return this.matcher.matches(text, input);
+	}
+
+
+	/**
+	 * Cache entry
+	 */
+	private static class CacheEntry<T>
+	{
+		private final List<T> choices;
+		private final boolean complete;
+		private final long expiry;
+
+		public CacheEntry(List<T> choices, boolean complete, long expiry)
+		{
+			this.choices = choices;
+			this.complete = complete;
+			this.expiry = expiry;
+		}
+	}
+}
@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.form.autocomplete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.googlecode.wicket.jquery.ui.renderer.ITextRenderer;
+import com.googlecode.wicket.jquery.ui.renderer.TextRenderer;
+
+/**
+ * Provides an immutable index of a reference list, to be used in {@link AutoCompleteTextField#getChoices(String)} instead of the linear scans of {@link AutoCompleteUtils}<br/>
+ * <ul>
+ * <li>{@link #startsWith(String, int)} performs a binary search in a sorted array of the (lower-cased) texts</li>
+ * <li>{@link #contains(String, int)} looks up the candidates in a trigram index, then verifies them</li>
+ * </ul>
+ * The index is built once and is thread-safe, so it is intended to be shared across sessions (ie: held by the application, or in a static field).<br/>
+ * <b>Note:</b> It is intentionally not serializable, it should not be referenced by a page.
+ * <pre>
+ * private static final AutoCompleteIndex&lt;Country&gt; INDEX = new AutoCompleteIndex&lt;Country&gt;(COUNTRIES, new TextRenderer&lt;Country&gt;("name"));
+ *
+ * protected List&lt;Country&gt; getChoices(String input)
+ * {
+ *     return INDEX.startsWith(input, 20);
+ * }
+ * </pre>
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ * @param <T> the type of the items
+ */
+public class AutoCompleteIndex<T>
+{
+	private static final int GRAM = 3;
+	private static final int[] EMPTY = new int[0];
+
+	private final List<T> items;
+	private final String[] texts; // lower-cased texts, in list order
+	private final int[] sorted; // item indexes, sorted by text
+	private final Map<Long, int[]> grams; // trigram -> ascending item indexes
+
+	/**
+	 * Constructor, the textual representation of the items is their toString()
+	 * @param list the reference list
+	 */
+	public AutoCompleteIndex(List<? extends T> list)
+	{
+		this(list, new TextRenderer<T>());
+	}
+
+	/**
+	 * Constructor
+	 * @param list the reference list
+	 * @param renderer the {@link ITextRenderer} that provides the textual representation of the items
+	 */
+	public AutoCompleteIndex(List<? extends T> list, ITextRenderer<? super T> renderer)
+	{
+		final int size = list.size();
+
+		this.items = Collections.unmodifiableList(new ArrayList<T>(list));
+		this.texts = new String[size];
+
+		for (int i = 0; i < size; i++)
+		{
+			String text = renderer.getText(this.items.get(i));
+			this.texts[i] = (text != null) ? text.toLowerCase() : "";
+		}
+
+		this.sorted = this.sort();
+		this.grams = this.index();
+	}
+
+	/**
+	 * Gets the item indexes, sorted by text
+	 * @return the sorted indexes
+	 */
+	private int[] sort()
+	{
+		Integer[] indexes = new Integer[this.texts.length];
+
+		for (int i = 0; i < indexes.length; i++)
+		{
+			indexes[i] = i;
+		}
+
+		Arrays.sort(indexes, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer i1, Integer i2)
+			{
+				int result = texts[i1].compareTo(texts[i2]);
+
+				return (result != 0) ? result : i1.compareTo(i2); // stable: preserves list order for equal texts
+			}
+		});
+
+		int[] array = new int[indexes.length];
+
+		for (int i = 0; i < array.length; i++)
+		{
+			array[i] = indexes[i];
+		}
+
+		return array;
+	}
+
+	/**
+	 * Builds the trigram index
+	 * @return the map of trigram to ascending item indexes
+	 */
+	private Map<Long, int[]> index()
+	{
+		Map<Long, int[]> postings = new HashMap<Long, int[]>();
+		Map<Long, Integer> counts = new HashMap<Long, Integer>();
+
+		for (int i = 0; i < this.texts.length; i++)
+		{
+			String text = this.texts[i];
+
+			for (int c = 0; c + GRAM <= text.length(); c++)
+			{
+				Long gram = AutoCompleteIndex.gram(text, c);
+				int[] array = postings.get(gram);
+				Integer count = counts.get(gram);
+
+				if (array == null)
+				{
+					array = new int[4];
+					postings.put(gram, array);
+					count = 0;
+				}
+				else if (array[count - 1] == i)
+				{
+					continue; // gram already registered for this item
+				}
+				else if (count == array.length)
+				{
+					array = Arrays.copyOf(array, count * 2);
+					postings.put(gram, array);
+				}
+
+				array[count] = i;
+				counts.put(gram, count + 1);
+			}
+		}
+
+		// trims //
+		for (Map.Entry<Long, int[]> entry : postings.entrySet())
+		{
+			entry.setValue(Arrays.copyOf(entry.getValue(), counts.get(entry.getKey())));
+		}
+
+		return postings;
+	}
+
+	/**
+	 * Encodes the trigram starting at the specified position
+	 * @param text the text
+	 * @param position the position
+	 * @return the trigram key
+	 */
+	private static Long gram(String text, int position)
+	{
+		return ((long) text.charAt(position) << 32) | ((long) text.charAt(position + 1) << 16) | text.charAt(position + 2);
+	}
+
+	/**
+	 * Gets the reference list
+	 * @return an unmodifiable list
+	 */
+	public List<T> getItems()
+	{
+		return this.items;
+	}
+
+	/**
+	 * Returns the items having their textual representation starting with the search criteria (case insensitive), in alphabetical order.
+	 * @param search search criteria
+	 * @param max max size of the list to be returned
+	 * @return the list of matching items
+	 */
+	public List<T> startsWith(String search, int max)
+	{
+		final String prefix = search.toLowerCase();
+		final List<T> choices = new ArrayList<T>(Math.min(max, 32));
+
+		// lower bound //
+		int low = 0;
+		int high = this.sorted.length;
+
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+
+			if (this.texts[this.sorted[middle]].compareTo(prefix) < 0)
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+
+		for (int i = low; i < this.sorted.length && choices.size() < max; i++)
+		{
+			int index = this.sorted[i];
+
+			if (!this.texts[index].startsWith(prefix))
+			{
+				break;
+			}
+
+			choices.add(this.items.get(index));
+		}
+
+		return choices;
+	}
+
+	/**
+	 * Returns the items having their textual representation containing the search criteria (case insensitive), in list order.
+	 * @param search search criteria
+	 * @param max max size of the list to be returned
+	 * @return the list of matching items
+	 */
+	public List<T> contains(String search, int max)
+	{
+		final String term = search.toLowerCase();
+		final List<T> choices = new ArrayList<T>(Math.min(max, 32));
+
+		if (term.length() < GRAM)
+		{
+			// too short to use the index //
+			for (int i = 0; i < this.texts.length && choices.size() < max; i++)
+			{
+				if (this.texts[i].contains(term))
+				{
+					choices.add(this.items.get(i));
+				}
+			}
+		}
+		else
+		{
+			// the rarest trigram of the term provides the smallest candidate list //
+			int[] candidates = null;
+
+			for (int c = 0; c + GRAM <= term.length(); c++)
+			{
+				int[] postings = this.grams.get(AutoCompleteIndex.gram(term, c));
+
+				if (postings == null)
+				{
+					candidates = EMPTY;
+					break;
+				}
+
+				if (candidates == null || postings.length < candidates.length)
+				{
+					candidates = postings;
+				}
+			}
+
+			for (int i = 0; i < candidates.length && choices.size() < max; i++)
+			{
+				int index = candidates[i];
+
+				if (this.texts[index].contains(term))
+				{
+					choices.add(this.items.get(index));
+				}
+			}
+		}
+
+		return choices;
+	}
+}
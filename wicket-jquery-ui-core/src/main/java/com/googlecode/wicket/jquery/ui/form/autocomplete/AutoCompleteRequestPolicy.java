@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.form.autocomplete;
+
+import org.apache.wicket.IClusterable;
+import org.apache.wicket.util.time.Duration;
+
+import com.googlecode.wicket.jquery.ui.Options;
+
+/**
+ * Provides the client-side request policy of an {@link AutoCompleteTextField}:
+ * <ul>
+ * <li>the delay (debounce) between the last keystroke and the request</li>
+ * <li>the minimum input length before a request is sent</li>
+ * <li>whether a pending request is aborted when a new input is sent</li>
+ * <li>the max number of inputs whose results are kept in the browser (0 means no client-side cache)</li>
+ * </ul>
+ * <pre>
+ * protected AutoCompleteRequestPolicy getRequestPolicy()
+ * {
+ *     return new AutoCompleteRequestPolicy().setDelay(Duration.milliseconds(250)).setMinLength(2).setCacheSize(50);
+ * }
+ * </pre>
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public class AutoCompleteRequestPolicy implements IClusterable
+{
+	private static final long serialVersionUID = 1L;
+
+	/** jQuery UI default delay */
+	private static final Duration DELAY = Duration.milliseconds(300);
+
+	private Duration delay;
+	private int minLength;
+	private boolean abort;
+	private int cacheSize;
+
+	/**
+	 * Constructor, with jQuery UI defaults (300ms delay, 1 char min length) and abort of pending requests
+	 */
+	public AutoCompleteRequestPolicy()
+	{
+		this.delay = DELAY;
+		this.minLength = 1;
+		this.abort = true;
+		this.cacheSize = 0;
+	}
+
+	// Properties //
+	/**
+	 * Gets the delay between the last keystroke and the request
+	 * @return the {@link Duration}
+	 */
+	public Duration getDelay()
+	{
+		return this.delay;
+	}
+
+	/**
+	 * Sets the delay between the last keystroke and the request
+	 * @param delay the {@link Duration}
+	 * @return this
+	 */
+	public AutoCompleteRequestPolicy setDelay(Duration delay)
+	{
+		this.delay = delay;
+
+		return this;
+	}
+
+	/**
+	 * Gets the minimum input length before a request is sent
+	 * @return the min length
+	 */
+	public int getMinLength()
+	{
+		return this.minLength;
+	}
+
+	/**
+	 * Sets the minimum input length before a request is sent
+	 * @param minLength the min length
+	 * @return this
+	 */
+	public AutoCompleteRequestPolicy setMinLength(int minLength)
+	{
+		this.minLength = minLength;
+
+		return this;
+	}
+
+	/**
+	 * Indicates whether a pending request is aborted when a new input is sent
+	 * @return true by default
+	 */
+	public boolean isAbort()
+	{
+		return this.abort;
+	}
+
+	/**
+	 * Sets whether a pending request is aborted when a new input is sent
+	 * @param abort true or false
+	 * @return this
+	 */
+	public AutoCompleteRequestPolicy setAbort(boolean abort)
+	{
+		this.abort = abort;
+
+		return this;
+	}
+
+	/**
+	 * Gets the max number of inputs whose results are kept in the browser
+	 * @return 0 by default (no client-side cache)
+	 */
+	public int getCacheSize()
+	{
+		return this.cacheSize;
+	}
+
+	/**
+	 * Sets the max number of inputs whose results are kept in the browser.<br/>
+	 * When the limit is reached, the client-side cache is emptied.
+	 * @param cacheSize the max number of inputs, 0 to disable the client-side cache
+	 * @return this
+	 */
+	public AutoCompleteRequestPolicy setCacheSize(int cacheSize)
+	{
+		this.cacheSize = cacheSize;
+
+		return this;
+	}
+
+	// Methods //
+	/**
+	 * Gets the value of the jQuery UI 'source' option, for the specified url
+	 * @param url the url that responds the JSON choices for the 'term' query parameter
+	 * @return the url (as a javascript string) if the policy does not need a source function, the source function otherwise
+	 */
+	public String getSource(CharSequence url)
+	{
+		if (!this.abort && this.cacheSize <= 0)
+		{
+			return Options.asString(url);
+		}
+
+		StringBuilder builder = new StringBuilder("function(request, response) { ");
+		builder.append("var $w = this; ");
+
+		if (this.cacheSize > 0)
+		{
+			builder.append("var $c = $w.wicketCache || ($w.wicketCache = { size: 0, data: {} }); ");
+			builder.append("if (Object.prototype.hasOwnProperty.call($c.data, request.term)) { response($c.data[request.term]); return; } ");
+		}
+
+		if (this.abort)
+		{
+			builder.append("if ($w.wicketXhr) { $w.wicketXhr.abort(); } ");
+		}
+
+		builder.append("$w.wicketXhr = jQuery.ajax({ url: ").append(Options.asString(url)).append(", dataType: 'json', data: { term: request.term }, ");
+		builder.append("success: function(data) { ");
+
+		if (this.cacheSize > 0)
+		{
+			builder.append("if ($c.size >= ").append(this.cacheSize).append(") { $c.size = 0; $c.data = {}; } ");
+			builder.append("$c.size++; $c.data[request.term] = data; ");
+		}
+
+		builder.append("response(data); }, ");
+		builder.append("error: function() { response([]); } "); // the widget expects a response, even for aborted requests
+		builder.append("}); }");
+
+		return builder.toString();
+	}
+}
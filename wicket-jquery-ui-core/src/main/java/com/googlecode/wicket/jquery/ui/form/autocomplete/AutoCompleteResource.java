@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.form.autocomplete;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.request.resource.AbstractResource;
+import org.apache.wicket.request.resource.IResource;
+import org.apache.wicket.request.resource.ResourceReference;
+import org.apache.wicket.request.resource.SharedResourceReference;
+
+import com.googlecode.wicket.jquery.ui.renderer.ITextRenderer;
+import com.googlecode.wicket.jquery.ui.renderer.TextRenderer;
+
+/**
+ * Provides a stateless, page-independent, source of choices for {@link AutoCompleteTextField}<code>s</code><br/>
+ * The resource is registered once as an application shared resource, identified by a provider id. An {@link AutoCompleteTextField} returning
+ * this id in {@link AutoCompleteTextField#getProviderId()} will then query the resource directly, so that suggestion requests neither
+ * load nor lock the page, and can be served by any node.
+ * <pre>
+ * public class MyApplication extends WebApplication
+ * {
+ *     public void init()
+ *     {
+ *         super.init();
+ *
+ *         AutoCompleteResource.register(this, "genres", new AutoCompleteResource&lt;Genre&gt;(new TextRenderer&lt;Genre&gt;("name")) {
+ *
+ *             protected List&lt;Genre&gt; getChoices(String input)
+ *             {
+ *                 return GenresDAO.find(input);
+ *             }
+ *
+ *             protected IChoiceResolver&lt;Genre&gt; getResolver()
+ *             {
+ *                 return new GenreResolver(); // getKey() returns the genre id, resolve() loads the genre by its id
+ *             }
+ *         });
+ *
+ *         this.mountResource("/suggest/genres", AutoCompleteResource.newReference("genres")); // optional, for a nice url
+ *     }
+ * }
+ * </pre>
+ * As the resource does not keep the choices it has served, the selected choice is resolved from its key, using the {@link IChoiceResolver} returned by {@link #getResolver()}.<br/>
+ * <b>Note:</b> As any shared resource, the implementation should be thread-safe and should not rely on the user session.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ * @param <T> the type of the choices
+ */
+public abstract class AutoCompleteResource<T> extends AbstractResource
+{
+	private static final long serialVersionUID = 1L;
+	private static final String QUERY = "term";
+
+	/**
+	 * Registers an {@link AutoCompleteResource} as an application shared resource
+	 * @param application the {@link Application}
+	 * @param id the provider id
+	 * @param resource the {@link AutoCompleteResource}
+	 */
+	public static void register(Application application, String id, AutoCompleteResource<?> resource)
+	{
+		application.getSharedResources().add(AutoCompleteResource.class, id, null, null, null, resource);
+	}
+
+	/**
+	 * Gets a new {@link ResourceReference} to the {@link AutoCompleteResource} registered with the provider id
+	 * @param id the provider id
+	 * @return the {@link ResourceReference}
+	 */
+	public static ResourceReference newReference(String id)
+	{
+		return new SharedResourceReference(AutoCompleteResource.class, id);
+	}
+
+	/**
+	 * Gets the {@link AutoCompleteResource} registered with the provider id
+	 * @param id the provider id
+	 * @return the {@link AutoCompleteResource}
+	 * @throws WicketRuntimeException if no resource has been registered with the provider id
+	 */
+	public static AutoCompleteResource<?> get(String id)
+	{
+		IResource resource = AutoCompleteResource.newReference(id).getResource();
+
+		if (resource instanceof AutoCompleteResource<?>)
+		{
+			return (AutoCompleteResource<?>) resource;
+		}
+
+		throw new WicketRuntimeException(String.format("No AutoCompleteResource has been registered for '%s'", id));
+	}
+
+
+	private final ITextRenderer<? super T> renderer;
+
+	/**
+	 * Constructor, the textual representation of the choices is their toString()
+	 */
+	public AutoCompleteResource()
+	{
+		this(new TextRenderer<T>());
+	}
+
+	/**
+	 * Constructor
+	 * @param renderer the {@link ITextRenderer}
+	 */
+	public AutoCompleteResource(ITextRenderer<? super T> renderer)
+	{
+		this.renderer = renderer;
+	}
+
+	/**
+	 * Gets choices matching the provided input
+	 * @param input String that represent the query
+	 * @return the list of choices
+	 */
+	protected abstract List<T> getChoices(String input);
+
+	/**
+	 * Gets the property list that should be appended to the JSON response. The value corresponding to the property is retrieved from the {@link ITextRenderer#getText(Object, String)}
+	 * @return the property list
+	 */
+	protected List<String> getProperties()
+	{
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Gets the {@link IChoiceResolver} that provides the key of each choice, and resolves the selected choice from its key
+	 * @return the {@link IChoiceResolver}
+	 */
+	protected abstract IChoiceResolver<T> getResolver();
+
+	/**
+	 * Resolves the choice that has been selected by the user
+	 * @param key the key (item id) of the selected choice
+	 * @return the choice resolved by the {@link IChoiceResolver}, or null
+	 */
+	public T resolve(String key)
+	{
+		return (key != null) ? this.getResolver().resolve(key) : null;
+	}
+
+	@Override
+	protected ResourceResponse newResourceResponse(final Attributes attributes)
+	{
+		final String input = attributes.getRequest().getQueryParameters().getParameterValue(QUERY).toString();
+
+		ResourceResponse response = new ResourceResponse();
+		response.setContentType("text/json");
+		response.setTextEncoding(Application.get().getRequestCycleSettings().getResponseRequestEncoding());
+		response.disableCaching();
+
+		response.setWriteCallback(new WriteCallback() {
+
+			@Override
+			public void writeData(Attributes attributes)
+			{
+				List<T> choices = AutoCompleteResource.this.getChoices(input);
+
+				if (choices != null)
+				{
+					AutoCompleteBehavior.write(attributes.getResponse(), choices, renderer, AutoCompleteResource.this.getProperties(), AutoCompleteResource.this.getResolver());
+				}
+			}
+		});
+
+		return response;
+	}
+}
@@ -68,7 +68,7 @@ public abstract class AutoCompleteTextField<T extends Serializable> extends Text
 	private JQueryTemplateBehavior templateBehavior = null;
 
 	/**
-	 * Cache of current choices, needed to retrieve the user selected object
+	 * Cache of current choices, needed to retrieve the user selected object if there is no {@link IChoiceResolver}
 	 */
 	private List<T> choices;
 
@@ -180,16 +180,98 @@ public abstract class AutoCompleteTextField<T extends Serializable> extends Text
 	protected abstract List<T> getChoices(String input);
 
 	/**
-	 * Call {@link #getChoices(String)} and cache the result<br/>
+	 * Gets the {@link AutoCompleteCache} in which results of {@link #getChoices(String)} are looked up before being retrieved.<br/>
+	 * The cache should not be held by the component itself; it is typically obtained by {@link AutoCompleteCache#get(AutoCompleteCache.Scope, String, Class, int, org.apache.wicket.util.time.Duration, IChoiceMatcher)}
+	 * @return null by default (no cache)
+	 */
+	protected AutoCompleteCache<T> getCache()
+	{
+		return null;
+	}
+
+	/**
+	 * Indicates whether the choices returned by {@link #getChoices(String)} are all the choices matching the input (ie: the list has not been truncated).<br/>
+	 * If true, and if a cache is provided by {@link #getCache()}, subsequent inputs starting with the same characters will be answered from the cache, without calling {@link #getChoices(String)}
+	 * @param input String that represent the query
+	 * @param choices the list of choices returned by {@link #getChoices(String)}
+	 * @return false by default
+	 */
+	protected boolean isComplete(String input, List<T> choices)
+	{
+		return false;
+	}
+
+	/**
+	 * Gets the id of the {@link AutoCompleteResource} that provides the choices.<br/>
+	 * If not null, suggestions are requested to the stateless shared resource registered with this id (see {@link AutoCompleteResource#register(org.apache.wicket.Application, String, AutoCompleteResource)})
+	 * instead of to this component, so that suggestion requests do not load (nor lock) the page. In that case, {@link #getChoices(String)} is not called.
+	 * @return null by default
+	 */
+	protected String getProviderId()
+	{
+		return null;
+	}
+
+	/**
+	 * Gets the {@link IChoiceResolver} used to retrieve the user selected object from its key.<br/>
+	 * If not null, the list of choices is not kept by the component (and thus not serialized with the page).
+	 * @return null by default, meaning that the selected object is retrieved from the last list of choices
+	 */
+	protected IChoiceResolver<T> getResolver()
+	{
+		return null;
+	}
+
+	/**
+	 * Gets the {@link AutoCompleteRequestPolicy}, that defines how the requests are sent by the browser (delay, min length, abort and client-side cache)
+	 * @return a default {@link AutoCompleteRequestPolicy}
+	 */
+	protected AutoCompleteRequestPolicy getRequestPolicy()
+	{
+		return new AutoCompleteRequestPolicy();
+	}
+
+	/**
+	 * Gets the url that responds the JSON choices: either the {@link AutoCompleteResource} url or the {@link AutoCompleteBehavior} callback url
+	 * @return the url
+	 */
+	private CharSequence getSourceUrl()
+	{
+		String id = this.getProviderId();
+
+		if (id != null)
+		{
+			return this.urlFor(AutoCompleteResource.newReference(id), null);
+		}
+
+		return this.sourceBehavior.getCallbackUrl();
+	}
+
+	/**
+	 * Call {@link #getChoices(String)}, or get the result from the {@link AutoCompleteCache} if any, and cache the result<br/>
 	 * Internal use only
 	 * @param input String that represent the query
 	 * @return the list of choices
 	 */
 	private List<T> internalGetChoices(String input)
 	{
-		this.choices = this.getChoices(input);
+		final AutoCompleteCache<T> cache = this.getCache();
+
+		List<T> list = (cache != null) ? cache.get(input, this.renderer) : null;
+
+		if (list == null)
+		{
+			list = this.getChoices(input);
+
+			if (cache != null && list != null)
+			{
+				cache.put(input, list, this.isComplete(input, list));
+			}
+		}
+
+		this.choices = (this.getResolver() == null) ? list : null;
 
-		return this.choices;
+		return list;
 	}
 
 	@Override
@@ -211,7 +293,11 @@ public abstract class AutoCompleteTextField<T extends Serializable> extends Text
 	{
 		super.onInitialize();
 
-		this.add(this.sourceBehavior = this.newAutoCompleteBehavior());
+		if (this.getProviderId() == null)
+		{
+			this.add(this.sourceBehavior = this.newAutoCompleteBehavior());
+		}
+
 		this.add(this.onSelectBehavior = this.newSelectBehavior());
 		this.add(JQueryWidget.newWidgetBehavior(this)); //cannot be in ctor as the markupId may be set manually afterward
 
@@ -247,12 +333,30 @@ public abstract class AutoCompleteTextField<T extends Serializable> extends Text
 		if (event.getPayload() instanceof AutoCompleteTextField.SelectEvent)
 		{
 			SelectEvent payload = (SelectEvent) event.getPayload();
+			T choice = null;
 
-			int index = payload.getIndex();
-			if (index < this.choices.size())
+			String id = this.getProviderId();
+			IChoiceResolver<T> resolver = this.getResolver();
+
+			if (id != null)
+			{
+				choice = (T) AutoCompleteResource.get(id).resolve(payload.getKey());
+			}
+			else if (resolver != null)
+			{
+				choice = resolver.resolve(payload.getKey());
+			}
+			else
 			{
-				T choice = AutoCompleteTextField.this.choices.get(index);
+				int index = payload.getIndex();
+				if (this.choices != null && index >= 0 && index < this.choices.size())
+				{
+					choice = AutoCompleteTextField.this.choices.get(index);
+				}
+			}
 
+			if (choice != null)
+			{
 				this.setModelObject(choice);
 				this.onSelected(payload.getTarget());
 			}
@@ -279,10 +383,14 @@ public abstract class AutoCompleteTextField<T extends Serializable> extends Text
 			@Override
 			public void onConfigure(Component component)
 			{
+				AutoCompleteRequestPolicy policy = AutoCompleteTextField.this.getRequestPolicy();
+
+				this.setOption("delay", policy.getDelay().getMilliseconds());
+				this.setOption("minLength", policy.getMinLength());
+
 				AutoCompleteTextField.this.onConfigure(this);
 
-//				this.setOption("delay", Duration.ONE_SECOND.getMilliseconds());
-				this.setOption("source", Options.asString(AutoCompleteTextField.this.sourceBehavior.getCallbackUrl()));
+				this.setOption("source", policy.getSource(AutoCompleteTextField.this.getSourceUrl()));
 				this.setOption("select", AutoCompleteTextField.this.onSelectBehavior.getCallbackFunction());
 			}
 
@@ -360,6 +468,12 @@ public abstract class AutoCompleteTextField<T extends Serializable> extends Text
 				return AutoCompleteTextField.this.internalGetChoices(input);
 			}
 
+			@Override
+			protected IChoiceResolver<? super T> getResolver()
+			{
+				return AutoCompleteTextField.this.getResolver();
+			}
+
 			@Override
 			protected List<String> getProperties()
 			{
@@ -393,7 +507,7 @@ public abstract class AutoCompleteTextField<T extends Serializable> extends Text
 			@Override
 			public CharSequence getCallbackScript()
 			{
-				return generateCallbackScript("wicketAjaxGet('" + getCallbackUrl() + "&index=' + ui.item.id");
+				return generateCallbackScript("wicketAjaxGet('" + getCallbackUrl() + "&key=' + encodeURIComponent(ui.item.id)");
 			}
 
 			@Override
@@ -412,18 +526,34 @@ public abstract class AutoCompleteTextField<T extends Serializable> extends Text
 	 */
 	class SelectEvent extends JQueryEvent
 	{
-		private final int index;
+		private final String key;
 
 		public SelectEvent(AjaxRequestTarget target)
 		{
 			super(target);
 
-			this.index = RequestCycleUtils.getQueryParameterValue("index").toInt(1) - 1;
+			this.key = RequestCycleUtils.getQueryParameterValue("key").toString();
 		}
 
+		/**
+		 * Gets the 0-based index of the selected choice, when the key is the default 1-based index
+		 * @return the index
+		 */
 		public int getIndex()
 		{
-			return this.index;
+			try
+			{
+				return Integer.parseInt(this.key) - 1;
+			}
+			catch (NumberFormatException e)
+			{
+				return -1;
+			}
+		}
+
+		public String getKey()
+		{
+			return this.key;
 		}
 	}
 }
@@ -20,7 +20,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Provides simple utils that can be used in {@link AutoCompleteTextField#getChoices(String)}
+ * Provides simple utils that can be used in {@link AutoCompleteTextField#getChoices(String)}<br/>
+ * For large reference lists, consider using an {@link AutoCompleteIndex} instead.
  * 
  * @author Sebastien Briquet - sebfz1
  *
@@ -53,11 +54,12 @@ public class AutoCompleteUtils
 	public static <T> List<T> contains(String search, List<T> list, int max)
 	{
 		List<T> choices = new ArrayList<T>();
+		String criteria = search.toLowerCase();
 	
 		int count = 0;
 		for (T choice : list)
 		{
-			if (choice.toString().toLowerCase().contains(search.toLowerCase()))
+			if (choice.toString().toLowerCase().contains(criteria))
 			{
 				choices.add(choice);
 				
@@ -92,11 +94,12 @@ public class AutoCompleteUtils
 	public static <T> List<T> startsWith(String search, List<T> list, int max)
 	{
 		List<T> choices = new ArrayList<T>();
+		String criteria = search.toLowerCase();
 	
 		int count = 0;
 		for (T choice : list)
 		{
-			if (choice.toString().toLowerCase().startsWith(search.toLowerCase()))
+			if (choice.toString().toLowerCase().startsWith(criteria))
 			{
 				choices.add(choice);
 				
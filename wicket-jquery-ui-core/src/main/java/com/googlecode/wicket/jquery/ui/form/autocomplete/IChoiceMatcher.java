@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.form.autocomplete;
+
+import org.apache.wicket.IClusterable;
+
+/**
+ * Provides the criteria by which the text of a choice matches the user input.<br/>
+ * It is used by the {@link AutoCompleteCache} to refine a cached result in memory, and should therefore be the same criteria as the one used by {@link AutoCompleteTextField#getChoices(String)}
+ *
+ * @author Sebastien Briquet - sebfz1
+ */
+public interface IChoiceMatcher extends IClusterable
+{
+	/**
+	 * Indicates whether the text of a choice matches the user input
+	 * @param text the textual representation of the choice, as returned by the {@link com.googlecode.wicket.jquery.ui.renderer.ITextRenderer}
+	 * @param input the user input
+	 * @return true if the choice matches the input
+	 */
+	boolean matches(String text, String input);
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.form.autocomplete;
+
+import org.apache.wicket.IClusterable;
+
+/**
+ * Provides the capability to identify a choice by a stable key, and to resolve the choice back from that key.<br/>
+ * When an {@link AutoCompleteTextField} has an {@link IChoiceResolver}, the key is sent to the browser as the item id, and the selected
+ * item is resolved from its key. The component therefore does not need to keep the last list of choices in its state.
+ *
+ * @param <T> the type of the choices
+ * @author Sebastien Briquet - sebfz1
+ */
+public interface IChoiceResolver<T> extends IClusterable
+{
+	/**
+	 * Gets the stable key of a choice (ie: its database id)
+	 * @param choice the choice
+	 * @return the key
+	 */
+	String getKey(T choice);
+
+	/**
+	 * Resolves a choice from its key
+	 * @param key the key, as returned by {@link #getKey(Object)}
+	 * @return the choice, or null if it cannot be resolved
+	 */
+	T resolve(String key);
+}
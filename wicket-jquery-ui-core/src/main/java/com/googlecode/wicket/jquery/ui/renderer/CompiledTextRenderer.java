@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.renderer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides a {@link TextRenderer} that resolves property expressions through compiled {@link PropertyAccessor}<code>s</code>,
+ * rather than parsing the expression for each object.<br/>
+ * It should be preferred to {@link TextRenderer} when rendering large lists of beans.<br/>
+ * The accessors are resolved once per renderer and expression, so that rendering an object does not look them up again.
+ * The bulk <code>render</code> methods are an opt-in API, for callers that need the texts of a whole list at once.
+ *
+ * @param <T> the model object type
+ * @author Sebastien Briquet - sebfz1
+ */
+public class CompiledTextRenderer<T> extends TextRenderer<T>
+{
+	private static final long serialVersionUID = 1L;
+
+	private transient volatile Map<String, PropertyAccessor> accessors = null; // expression -> accessor
+
+	/**
+	 * Constructor
+	 */
+	public CompiledTextRenderer()
+	{
+		super();
+	}
+
+	/**
+	 * Constructor
+	 * @param expression the property expression that will be resolved for the bean supplied to {@link #getText(Object)}
+	 */
+	public CompiledTextRenderer(String expression)
+	{
+		super(expression);
+	}
+
+	@Override
+	public String getText(T object, String expression)
+	{
+		if (expression != null)
+		{
+			return CompiledTextRenderer.toString(this.getAccessor(expression).getValue(object));
+		}
+
+		return "";
+	}
+
+	/**
+	 * Renders the texts of a list of objects
+	 * @param objects the list of objects
+	 * @return the array of texts, as returned by {@link #getText(Object)}
+	 */
+	public String[] render(List<? extends T> objects)
+	{
+		final int size = objects.size();
+		final String[] texts = new String[size];
+
+		if (this.getExpression() == null)
+		{
+			int index = 0;
+			for (T object : objects)
+			{
+				texts[index++] = this.getText(object);
+			}
+		}
+		else
+		{
+			this.render(objects, this.getAccessor(this.getExpression()), texts);
+		}
+
+		return texts;
+	}
+
+	/**
+	 * Renders the texts of a list of objects, for several property expressions
+	 * @param objects the list of objects
+	 * @param expressions the property expressions
+	 * @return the column arrays, indexed by expression then by object: <code>columns[expression][object]</code>
+	 */
+	public String[][] render(List<? extends T> objects, List<String> expressions)
+	{
+		final String[][] columns = new String[expressions.size()][];
+
+		for (int e = 0; e < columns.length; e++)
+		{
+			columns[e] = new String[objects.size()];
+			this.render(objects, this.getAccessor(expressions.get(e)), columns[e]);
+		}
+
+		return columns;
+	}
+
+	/**
+	 * Gets the {@link PropertyAccessor} of an expression, resolved once per renderer
+	 * @param expression the property expression
+	 * @return the {@link PropertyAccessor}
+	 */
+	private PropertyAccessor getAccessor(String expression)
+	{
+		Map<String, PropertyAccessor> map = this.accessors;
+
+		if (map == null)
+		{
+			map = new ConcurrentHashMap<String, PropertyAccessor>(4);
+			this.accessors = map; // concurrent creations only result in a lookup being done twice
+		}
+
+		PropertyAccessor accessor = map.get(expression);
+
+		if (accessor == null)
+		{
+			accessor = PropertyAccessor.of(expression);
+			map.put(expression, accessor);
+		}
+
+		return accessor;
+	}
+
+	/**
+	 * Renders a column
+	 * @param objects the list of objects
+	 * @param accessor the {@link PropertyAccessor}
+	 * @param column the column to fill
+	 */
+	private void render(List<? extends T> objects, PropertyAccessor accessor, String[] column)
+	{
+		int index = 0;
+		for (T object : objects)
+		{
+			column[index++] = CompiledTextRenderer.toString(accessor.getValue(object));
+		}
+	}
+
+	/**
+	 * Gets the textual representation of a value
+	 * @param value the value
+	 * @return the value's toString() or an empty string if the value is null
+	 */
+	private static String toString(Object value)
+	{
+		return (value != null) ? value.toString() : "";
+	}
+}
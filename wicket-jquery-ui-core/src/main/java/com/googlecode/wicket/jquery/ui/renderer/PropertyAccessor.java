@@ -0,0 +1,356 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.renderer;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.util.lang.PropertyResolver;
+
+import com.googlecode.wicket.jquery.ui.utils.MetaDataUtils;
+
+/**
+ * Provides a compiled, read-only, property expression (ie: "address.city").<br/>
+ * The expression is parsed once, and the getter of each of its properties is looked up once per target class, then cached.
+ * Compared to {@link PropertyResolver#getValue(String, Object)}, evaluating the expression neither parses it nor looks up getters again.<br/>
+ * Simple dotted expressions are supported (getters, boolean 'is' getters, fields and map keys); other expressions (ie: indexes) are delegated to the {@link PropertyResolver}.<br/>
+ * Like the {@link PropertyResolver} cache, accessors are kept in the {@link Application} metadata, so that they are released with the application.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public final class PropertyAccessor
+{
+	private static final MetaDataKey<ConcurrentHashMap<String, PropertyAccessor>> ACCESSORS = new MetaDataKey<ConcurrentHashMap<String, PropertyAccessor>>() {
+
+		private static final long serialVersionUID = 1L;
+	};
+
+	/**
+	 * Gets the {@link PropertyAccessor} for the expression, cached by the current {@link Application}
+	 * @param expression the property expression
+	 * @return the {@link PropertyAccessor}
+	 */
+	public static PropertyAccessor of(String expression)
+	{
+		if (!Application.exists())
+		{
+			return new PropertyAccessor(expression); // not cached
+		}
+
+		ConcurrentMap<String, PropertyAccessor> accessors = MetaDataUtils.getMap(Application.get(), ACCESSORS);
+		PropertyAccessor accessor = accessors.get(expression);
+
+		if (accessor == null)
+		{
+			accessor = new PropertyAccessor(expression);
+
+			PropertyAccessor existing = accessors.putIfAbsent(expression, accessor);
+
+			if (existing != null)
+			{
+				accessor = existing;
+			}
+		}
+
+		return accessor;
+	}
+
+
+
+	private final String expression;
+	private final Step[] steps; // null if the expression is delegated to the PropertyResolver
+
+	/**
+	 * Constructor
+	 * @param expression the property expression
+	 */
+	private PropertyAccessor(String expression)
+	{
+		this.expression = expression;
+		this.steps = PropertyAccessor.compile(expression);
+	}
+
+	/**
+	 * Compiles the expression
+	 * @param expression the property expression
+	 * @return the array of {@link Step}<code>s</code>, or null if the expression is not supported
+	 */
+	private static Step[] compile(String expression)
+	{
+		if (expression.indexOf('[') >= 0 || expression.indexOf('(') >= 0)
+		{
+			return null;
+		}
+
+		String[] names = expression.split("\\.");
+		Step[] steps = new Step[names.length];
+
+		for (int i = 0; i < names.length; i++)
+		{
+			String name = names[i].trim();
+
+			if (name.length() == 0 || Character.isDigit(name.charAt(0)))
+			{
+				return null; // list index or malformed, handled by the PropertyResolver
+			}
+
+			steps[i] = new Step(name);
+		}
+
+		return steps;
+	}
+
+	/**
+	 * Gets the expression
+	 * @return the property expression
+	 */
+	public String getExpression()
+	{
+		return this.expression;
+	}
+
+	/**
+	 * Gets the value of the expression for the object
+	 * @param object the object
+	 * @return the value, or null if the object, or an intermediate value, is null
+	 */
+	public Object getValue(Object object)
+	{
+		if (this.steps == null)
+		{
+			return PropertyResolver.getValue(this.expression, object);
+		}
+
+		Object value = object;
+
+		for (int i = 0; i < this.steps.length && value != null; i++)
+		{
+			value = this.steps[i].get(value);
+		}
+
+		return value;
+	}
+
+	@Override
+	public String toString()
+	{
+		return this.expression;
+	}
+
+
+	/**
+	 * A property of the expression, which getter is resolved once per target class
+	 */
+	private static class Step
+	{
+		private final String name;
+		private final ConcurrentMap<Class<?>, Getter> getters;
+
+		public Step(String name)
+		{
+			this.name = name;
+			this.getters = new ConcurrentHashMap<Class<?>, Getter>(4);
+		}
+
+		public Object get(Object target)
+		{
+			Class<?> type = target.getClass();
+			Getter getter = this.getters.get(type);
+
+			if (getter == null)
+			{
+				getter = Getter.of(type, this.name);
+				this.getters.put(type, getter);
+			}
+
+			return getter.get(target, this.name);
+		}
+	}
+
+	/**
+	 * Reads a property of a target object
+	 */
+	private abstract static class Getter
+	{
+		/**
+		 * Looks up the getter of a property, in the same order as the {@link PropertyResolver}: map key, 'get' method, 'is' method, field
+		 * @param type the target class
+		 * @param name the property name
+		 * @return the {@link Getter}
+		 */
+		public static Getter of(Class<?> type, String name)
+		{
+			if (Map.class.isAssignableFrom(type))
+			{
+				return MapGetter.INSTANCE;
+			}
+
+			String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+			Method method = Getter.findMethod(type, "get" + suffix);
+
+			if (method == null)
+			{
+				method = Getter.findMethod(type, "is" + suffix);
+			}
+
+			if (method != null)
+			{
+				return new MethodGetter(method);
+			}
+
+			Field field = Getter.findField(type, name);
+
+			if (field != null)
+			{
+				return new FieldGetter(field);
+			}
+
+			throw new WicketRuntimeException(String.format("No get method defined for class: %s expression: %s", type, name));
+		}
+
+		private static Method findMethod(Class<?> type, String name)
+		{
+			try
+			{
+				Method method = type.getMethod(name);
+
+				if (method.getReturnType() != void.class)
+				{
+					Getter.setAccessible(method);
+
+					return method;
+				}
+			}
+			catch (NoSuchMethodException e)
+			{
+				// not found
+			}
+
+			return null;
+		}
+
+		private static Field findField(Class<?> type, String name)
+		{
+			for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass())
+			{
+				try
+				{
+					Field field = clazz.getDeclaredField(name);
+					Getter.setAccessible(field);
+
+					return field;
+				}
+				catch (NoSuchFieldException e)
+				{
+					// not found, looks up the superclass
+				}
+			}
+
+			return null;
+		}
+
+		/**
+		 * Public members of non-public classes (ie: private inner beans) can only be invoked if made accessible
+		 * @param member the {@link Method} or {@link Field}
+		 */
+		private static void setAccessible(AccessibleObject member)
+		{
+			try
+			{
+				member.setAccessible(true);
+			}
+			catch (SecurityException e)
+			{
+				// not allowed, invocation may fail
+			}
+		}
+
+		public abstract Object get(Object target, String name);
+	}
+
+	private static class MapGetter extends Getter
+	{
+		public static final MapGetter INSTANCE = new MapGetter();
+
+		@Override
+		public Object get(Object target, String name)
+		{
+			return ((Map<?, ?>) target).get(name);
+		}
+	}
+
+	private static class MethodGetter extends Getter
+	{
+		private static final Object[] NO_ARGS = new Object[0];
+
+		private final Method method;
+
+		public MethodGetter(Method method)
+		{
+			this.method = method;
+		}
+
+		@Override
+		public Object get(Object target, String name)
+		{
+			try
+			{
+				return this.method.invoke(target, NO_ARGS);
+			}
+			catch (IllegalAccessException e)
+			{
+				throw new WicketRuntimeException("Error calling method: " + this.method + " on object: " + target, e);
+			}
+			catch (InvocationTargetException e)
+			{
+				throw new WicketRuntimeException("Error calling method: " + this.method + " on object: " + target, e.getCause());
+			}
+		}
+	}
+
+	private static class FieldGetter extends Getter
+	{
+		private final Field field;
+
+		public FieldGetter(Field field)
+		{
+			this.field = field;
+		}
+
+		@Override
+		public Object get(Object target, String name)
+		{
+			try
+			{
+				return this.field.get(target);
+			}
+			catch (IllegalAccessException e)
+			{
+				throw new WicketRuntimeException("Error getting field value of field " + this.field + " from object " + target, e);
+			}
+		}
+	}
+}
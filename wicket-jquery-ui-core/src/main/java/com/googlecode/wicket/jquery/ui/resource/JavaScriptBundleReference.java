@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.resource;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.wicket.request.resource.IResource;
+import org.apache.wicket.request.resource.ResourceReference;
+
+import com.googlecode.wicket.jquery.ui.JQueryHeaderResponse;
+
+/**
+ * Provides a resource reference that bundles several javascript resources (ie: jQuery, jQuery UI, Kendo UI) into a single resource.<br/>
+ * The name of the bundle contains the hash of its content, so that the bundle is cached by browsers for a year, and a new version is requested as soon as its content changes.
+ * The bundle is served gzip-compressed to browsers accepting it.<br/>
+ * Bundles are rendered by the {@link JQueryHeaderResponse}, instead of the first of their resources required by a page:
+ * <code><pre>
+ * public class MyApplication extends WebApplication
+ * {
+ *     public void init()
+ *     {
+ *         super.init();
+ *
+ *         JavaScriptBundleReference bundle = new JavaScriptBundleReference("jquery-bundle",
+ *                 JQueryLibrarySettings.getJQueryReference(),
+ *                 JQueryLibrarySettings.getJQueryUIReference());
+ *
+ *         this.setHeaderResponseDecorator(new JQueryHeaderResponse.Decorator(bundle));
+ *     }
+ * }
+ * <pre></code>
+ *
+ * <b>Note:</b> The bundled references should be package resources (their locale, style and variation are ignored), and should be given in their dependency order.<br/>
+ * <b>Note:</b> Bundles are static: they are defined by the application, not computed from the references actually required by each page type.
+ * A page requiring any of the bundled references downloads the whole bundle, so a bundle should only group references that are used together by most pages
+ * (ie: jQuery and jQuery UI), and libraries used by a few pages (ie: Kendo UI) should be kept in a separate bundle.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public class JavaScriptBundleReference extends ResourceReference
+{
+	private static final long serialVersionUID = 1L;
+
+	private final JavaScriptBundleResource resource;
+	private final Set<Key> keys;
+
+	/**
+	 * Constructor
+	 * @param name the name of the bundle (ie: "jquery-bundle"), the content hash and the extension will be appended
+	 * @param references the javascript {@link ResourceReference}<code>s</code> to bundle, in order
+	 */
+	public JavaScriptBundleReference(String name, ResourceReference... references)
+	{
+		this(name, new JavaScriptBundleResource(references), references);
+	}
+
+	/**
+	 * Constructor
+	 * @param name the name of the bundle
+	 * @param resource the {@link JavaScriptBundleResource}
+	 * @param references the bundled {@link ResourceReference}<code>s</code>
+	 */
+	private JavaScriptBundleReference(String name, JavaScriptBundleResource resource, ResourceReference... references)
+	{
+		super(JavaScriptBundleReference.class, name + "-" + resource.getVersion() + ".js");
+
+		this.resource = resource;
+		this.keys = new HashSet<Key>();
+
+		for (ResourceReference reference : references)
+		{
+			this.keys.add(reference.getKey());
+		}
+	}
+
+	/**
+	 * Indicates whether the bundle contains a resource
+	 * @param reference the {@link ResourceReference}
+	 * @return true if the reference is part of the bundle
+	 */
+	public boolean contains(ResourceReference reference)
+	{
+		return this.keys.contains(reference.getKey());
+	}
+
+	@Override
+	public IResource getResource()
+	{
+		return this.resource;
+	}
+}
@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.request.http.WebRequest;
+import org.apache.wicket.request.http.WebResponse;
+import org.apache.wicket.request.resource.AbstractResource;
+import org.apache.wicket.request.resource.ResourceReference;
+import org.apache.wicket.util.io.IOUtils;
+import org.apache.wicket.util.time.Time;
+
+/**
+ * Provides the resource of a {@link JavaScriptBundleReference}.<br/>
+ * The javascript resources of the bundle are read from the classpath and concatenated once, then kept in memory along with their gzip-compressed variant,
+ * so that serving the bundle neither reads nor compresses the resources again.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+class JavaScriptBundleResource extends AbstractResource
+{
+	private static final long serialVersionUID = 1L;
+	private static final byte[] SEPARATOR = "\n;\n".getBytes(); // guards against resources lacking a trailing semicolon
+
+	private final byte[] content;
+	private final byte[] compressed;
+	private final String version;
+	private final Time lastModified;
+
+	/**
+	 * Constructor
+	 * @param references the javascript {@link ResourceReference}<code>s</code> to bundle, in order
+	 */
+	public JavaScriptBundleResource(ResourceReference... references)
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream(1024 * 64);
+
+		for (ResourceReference reference : references)
+		{
+			InputStream stream = reference.getScope().getResourceAsStream(reference.getName());
+
+			if (stream == null)
+			{
+				throw new WicketRuntimeException(String.format("%s cannot be bundled, it is not a package resource", reference));
+			}
+
+			try
+			{
+				output.write(IOUtils.toByteArray(stream));
+				output.write(SEPARATOR);
+			}
+			catch (IOException e)
+			{
+				throw new WicketRuntimeException("Unable to read " + reference, e);
+			}
+			finally
+			{
+				IOUtils.closeQuietly(stream);
+			}
+		}
+
+		this.content = output.toByteArray();
+		this.compressed = JavaScriptBundleResource.compress(this.content);
+		this.version = JavaScriptBundleResource.digest(this.content);
+		this.lastModified = Time.now();
+	}
+
+	/**
+	 * Gets the version of the bundle, which is the hash of its content
+	 * @return the version
+	 */
+	public String getVersion()
+	{
+		return this.version;
+	}
+
+	@Override
+	protected ResourceResponse newResourceResponse(Attributes attributes)
+	{
+		ResourceResponse response = new ResourceResponse();
+		response.setContentType("text/javascript");
+		response.setLastModified(this.lastModified);
+		response.setCacheDurationToMaximum(); // the url changes with the content
+		response.setCacheScope(WebResponse.CacheScope.PUBLIC);
+		response.getHeaders().addHeader("Vary", "Accept-Encoding");
+
+		if (response.dataNeedsToBeWritten(attributes))
+		{
+			String encoding = ((WebRequest) attributes.getRequest()).getHeader("Accept-Encoding");
+			final byte[] data;
+
+			if (JavaScriptBundleResource.acceptsGzip(encoding))
+			{
+				data = this.compressed;
+				response.getHeaders().addHeader("Content-Encoding", "gzip");
+			}
+			else
+			{
+				data = this.content;
+			}
+
+			response.setContentLength(data.length);
+			response.setWriteCallback(new WriteCallback() {
+
+				@Override
+				public void writeData(Attributes attributes)
+				{
+					attributes.getResponse().write(data);
+				}
+			});
+		}
+
+		return response;
+	}
+
+	/**
+	 * Indicates whether the Accept-Encoding header accepts the gzip coding, with a non-zero quality value (ie: "gzip;q=0" is a refusal)
+	 * @param encoding the Accept-Encoding header value, or null
+	 * @return true if gzip is accepted
+	 */
+	private static boolean acceptsGzip(String encoding)
+	{
+		if (encoding == null)
+		{
+			return false;
+		}
+
+		for (String coding : encoding.split(","))
+		{
+			String[] params = coding.split(";");
+			String name = params[0].trim();
+
+			if ("gzip".equalsIgnoreCase(name) || "x-gzip".equalsIgnoreCase(name))
+			{
+				for (int i = 1; i < params.length; i++)
+				{
+					String param = params[i].trim();
+
+					if (param.startsWith("q="))
+					{
+						try
+						{
+							return Double.parseDouble(param.substring(2)) > 0;
+						}
+						catch (NumberFormatException e)
+						{
+							return false;
+						}
+					}
+				}
+
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Compresses the content
+	 * @param content the content
+	 * @return the gzip-compressed content
+	 */
+	private static byte[] compress(byte[] content)
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream(content.length / 3);
+
+		try
+		{
+			GZIPOutputStream gzip = new GZIPOutputStream(output);
+			gzip.write(content);
+			gzip.close();
+		}
+		catch (IOException e)
+		{
+			throw new WicketRuntimeException(e);
+		}
+
+		return output.toByteArray();
+	}
+
+	/**
+	 * Gets the hash of the content
+	 * @param content the content
+	 * @return the hexadecimal MD5 digest
+	 */
+	private static String digest(byte[] content)
+	{
+		try
+		{
+			StringBuilder builder = new StringBuilder(32);
+
+			for (byte b : MessageDigest.getInstance("MD5").digest(content))
+			{
+				builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+
+			return builder.toString();
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new WicketRuntimeException(e);
+		}
+	}
+}
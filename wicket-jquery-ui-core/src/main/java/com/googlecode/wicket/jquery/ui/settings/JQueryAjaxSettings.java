@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.settings;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.ajax.AjaxChannel;
+import org.apache.wicket.util.time.Duration;
+
+import com.googlecode.wicket.jquery.ui.ajax.AjaxPriority;
+import com.googlecode.wicket.jquery.ui.ajax.JQueryAjaxBehavior;
+import com.googlecode.wicket.jquery.ui.ajax.JQueryAjaxDispatcher;
+
+/**
+ * Provides an utility class for the ajax settings of {@link JQueryAjaxBehavior}<code>s</code>.<br/>
+ *
+ * <code><pre>
+ * public class MyApplication extends WebApplication
+ * {
+ *     public void init()
+ *     {
+ *         super.init();
+ *
+ *         JQueryAjaxSettings.setBatchDelay(Duration.NONE); // batches the callbacks fired within one animation frame
+ *         JQueryAjaxSettings.setPriority(Calendar.class, AjaxPriority.LOW);
+ *         JQueryAjaxSettings.setPriority(AbstractDialog.class, AjaxPriority.HIGH); // dialog buttons do not wait behind other callbacks
+ *         JQueryAjaxSettings.setChannel(AutoCompleteTextField.class, new AjaxChannel("autocomplete", AjaxChannel.Type.DROP));
+ *     }
+ * }
+ * <pre></code>
+ *
+ * The priority and the channel of a widget type also apply to its subclasses. No priority is set by default: callbacks use the Wicket default channel.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public class JQueryAjaxSettings
+{
+	private static Duration batchDelay = null;
+	private static final Map<Class<?>, AjaxPriority> priorities = new ConcurrentHashMap<Class<?>, AjaxPriority>();
+	private static final Map<Class<?>, AjaxChannel> channels = new ConcurrentHashMap<Class<?>, AjaxChannel>();
+
+	// Batch //
+
+	/**
+	 * Gets the window during which {@link JQueryAjaxBehavior} callbacks are queued, before being sent as a single request by the {@link JQueryAjaxDispatcher}
+	 *
+	 * @return the {@link Duration}, {@link Duration#NONE} for one animation frame, or null if callbacks are not batched (default)
+	 */
+	public static Duration getBatchDelay()
+	{
+		return JQueryAjaxSettings.batchDelay;
+	}
+
+	/**
+	 * Sets the window during which {@link JQueryAjaxBehavior} callbacks are queued, before being sent as a single request by the {@link JQueryAjaxDispatcher}
+	 *
+	 * @param delay the {@link Duration}, {@link Duration#NONE} for one animation frame, or null to disable batching
+	 */
+	public static void setBatchDelay(Duration delay)
+	{
+		JQueryAjaxSettings.batchDelay = delay;
+	}
+
+	// Priority //
+
+	/**
+	 * Gets the {@link AjaxPriority} of the callbacks of a widget type
+	 *
+	 * @param type the widget class
+	 * @return the {@link AjaxPriority} of the class or of its nearest superclass, or null if none has been set
+	 */
+	public static AjaxPriority getPriority(Class<?> type)
+	{
+		return JQueryAjaxSettings.lookup(JQueryAjaxSettings.priorities, type);
+	}
+
+	/**
+	 * Sets the {@link AjaxPriority} of the callbacks of a widget type
+	 *
+	 * @param type the widget class
+	 * @param priority the {@link AjaxPriority}, or null to remove it
+	 */
+	public static void setPriority(Class<? extends Component> type, AjaxPriority priority)
+	{
+		JQueryAjaxSettings.register(JQueryAjaxSettings.priorities, type, priority);
+	}
+
+	// Channel //
+
+	/**
+	 * Gets the {@link AjaxChannel} of the callbacks of a widget type
+	 *
+	 * @param type the widget class
+	 * @return the {@link AjaxChannel} of the class or of its nearest superclass, or null if none has been set
+	 */
+	public static AjaxChannel getChannel(Class<?> type)
+	{
+		return JQueryAjaxSettings.lookup(JQueryAjaxSettings.channels, type);
+	}
+
+	/**
+	 * Sets the {@link AjaxChannel} of the callbacks of a widget type.<br/>
+	 * The channel type is the policy applied to a callback fired while a request of the same channel is running, as supported by Wicket 1.5:
+	 * {@link AjaxChannel.Type#QUEUE} (the callback waits for the running request) or {@link AjaxChannel.Type#DROP} (only the last pending callback is kept).
+	 * A running request is never aborted.<br/>
+	 * <b>Note:</b> An explicit channel takes precedence over the {@link AjaxPriority}.
+	 *
+	 * @param type the widget class
+	 * @param channel the {@link AjaxChannel}, or null to remove it
+	 */
+	public static void setChannel(Class<? extends Component> type, AjaxChannel channel)
+	{
+		JQueryAjaxSettings.register(JQueryAjaxSettings.channels, type, channel);
+	}
+
+	// Helpers //
+
+	private static <V> V lookup(Map<Class<?>, V> map, Class<?> type)
+	{
+		if (!map.isEmpty())
+		{
+			for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass())
+			{
+				V value = map.get(clazz);
+
+				if (value != null)
+				{
+					return value;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private static <V> void register(Map<Class<?>, V> map, Class<?> type, V value)
+	{
+		if (value != null)
+		{
+			map.put(type, value);
+		}
+		else
+		{
+			map.remove(type);
+		}
+	}
+
+	/**
+	 * Utility class
+	 */
+	private JQueryAjaxSettings()
+	{
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.utils;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Utility class for formatting dates to their javascript representations<br/>
+ * <ul>
+ * <li>ISO8601: "yyyy-MM-dd'T'HH:mmZ" (ie: 2009-11-05T13:15+0100), computed without {@link java.util.Calendar} nor {@link SimpleDateFormat}, using the proleptic Gregorian calendar</li>
+ * <li>epoch: the number of milliseconds since January 1, 1970 UTC, to be used as <code>new Date(epoch)</code></li>
+ * </ul>
+ * Formatters of custom patterns are cached per thread, see {@link #getDateFormat(String, Locale)}.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public class DateUtils
+{
+	/** ISO8601 pattern, as used by {@link #toISOString(Date)} */
+	public static final String ISO8601 = "yyyy-MM-dd'T'HH:mmZ";
+
+	private static final long MILLIS_PER_DAY = 86400000L;
+
+	private static final ThreadLocal<Map<String, DateFormat>> FORMATS = new ThreadLocal<Map<String, DateFormat>>() {
+
+		@Override
+		protected Map<String, DateFormat> initialValue()
+		{
+			return new HashMap<String, DateFormat>();
+		}
+	};
+
+	/**
+	 * Gets the ISO8601 representation of a date, in the default time zone
+	 * @param date the {@link Date}
+	 * @return the ISO8601 string
+	 */
+	public static String toISOString(Date date)
+	{
+		return DateUtils.toISOString(date.getTime(), TimeZone.getDefault());
+	}
+
+	/**
+	 * Gets the ISO8601 representation of a date
+	 * @param millis the date, in milliseconds since January 1, 1970 UTC
+	 * @param timezone the {@link TimeZone} in which the date is expressed
+	 * @return the ISO8601 string
+	 */
+	public static String toISOString(long millis, TimeZone timezone)
+	{
+		return DateUtils.appendISO(new StringBuilder(22), millis, timezone).toString();
+	}
+
+	/**
+	 * Appends the ISO8601 representation of a date, in the default time zone
+	 * @param builder the {@link StringBuilder}
+	 * @param date the {@link Date}
+	 * @return the builder
+	 */
+	public static StringBuilder appendISO(StringBuilder builder, Date date)
+	{
+		return DateUtils.appendISO(builder, date.getTime(), TimeZone.getDefault());
+	}
+
+	/**
+	 * Appends the ISO8601 representation of a date.<br/>
+	 * This method does not create any object.
+	 * @param builder the {@link StringBuilder}
+	 * @param millis the date, in milliseconds since January 1, 1970 UTC
+	 * @param timezone the {@link TimeZone} in which the date is expressed
+	 * @return the builder
+	 */
+	public static StringBuilder appendISO(StringBuilder builder, long millis, TimeZone timezone)
+	{
+		final int offset = timezone.getOffset(millis); // includes DST
+		final long local = millis + offset;
+
+		long days = local / MILLIS_PER_DAY;
+		long time = local % MILLIS_PER_DAY;
+
+		if (time < 0)
+		{
+			days--;
+			time += MILLIS_PER_DAY;
+		}
+
+		// civil date from days (H. Hinnant's algorithm) //
+		final long z = days + 719468;
+		final long era = (z >= 0 ? z : z - 146096) / 146097;
+		final int doe = (int) (z - era * 146097);
+		final int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		final int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		final int mp = (5 * doy + 2) / 153;
+		final int day = doy - (153 * mp + 2) / 5 + 1;
+		final int month = mp < 10 ? mp + 3 : mp - 9;
+		final long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+		DateUtils.pad(builder, year, 4).append('-');
+		DateUtils.pad(builder, month, 2).append('-');
+		DateUtils.pad(builder, day, 2).append('T');
+		DateUtils.pad(builder, time / 3600000, 2).append(':');
+		DateUtils.pad(builder, (time / 60000) % 60, 2);
+
+		final int minutes = Math.abs(offset / 60000);
+		builder.append(offset < 0 ? '-' : '+');
+		DateUtils.pad(builder, minutes / 60, 2);
+		DateUtils.pad(builder, minutes % 60, 2);
+
+		return builder;
+	}
+
+	/**
+	 * Appends the epoch representation of a date
+	 * @param builder the {@link StringBuilder}
+	 * @param date the {@link Date}
+	 * @return the builder
+	 */
+	public static StringBuilder appendEpoch(StringBuilder builder, Date date)
+	{
+		return builder.append(date.getTime());
+	}
+
+	/**
+	 * Formats a date with a pattern, using the per-thread cached {@link DateFormat}
+	 * @param date the {@link Date}
+	 * @param pattern the {@link SimpleDateFormat} pattern
+	 * @return the formatted date
+	 */
+	public static String format(Date date, String pattern)
+	{
+		return DateUtils.getDateFormat(pattern, null).format(date);
+	}
+
+	/**
+	 * Formats a date with a pattern, using the per-thread cached {@link DateFormat}
+	 * @param date the {@link Date}
+	 * @param pattern the {@link SimpleDateFormat} pattern
+	 * @param timezone the {@link TimeZone}
+	 * @return the formatted date
+	 */
+	public static String format(Date date, String pattern, TimeZone timezone)
+	{
+		DateFormat format = DateUtils.getDateFormat(pattern, null);
+		format.setTimeZone(timezone);
+
+		return format.format(date);
+	}
+
+	/**
+	 * Gets the {@link DateFormat} of a pattern, cached for the current thread.<br/>
+	 * The returned instance is set to the current default time zone, and should neither be kept nor shared across threads (see {@link DateFormat#clone()}).
+	 * @param pattern the {@link SimpleDateFormat} pattern
+	 * @param locale the {@link Locale}, or null for the default locale
+	 * @return the {@link DateFormat}
+	 */
+	public static DateFormat getDateFormat(String pattern, Locale locale)
+	{
+		final Map<String, DateFormat> formats = FORMATS.get();
+		final String key = (locale != null) ? pattern + '|' + locale : pattern;
+
+		DateFormat format = formats.get(key);
+
+		if (format == null)
+		{
+			format = (locale != null) ? new SimpleDateFormat(pattern, locale) : new SimpleDateFormat(pattern);
+			formats.put(key, format);
+		}
+
+		format.setTimeZone(TimeZone.getDefault()); // may have been changed by the previous caller, or by TimeZone#setDefault
+
+		return format;
+	}
+
+	private static StringBuilder pad(StringBuilder builder, long value, int length)
+	{
+		for (long n = 10; length > 1; length--, n *= 10)
+		{
+			if (value < n)
+			{
+				builder.append('0');
+			}
+		}
+
+		return builder.append(value);
+	}
+
+	/**
+	 * Utility class
+	 */
+	private DateUtils()
+	{
+	}
+}
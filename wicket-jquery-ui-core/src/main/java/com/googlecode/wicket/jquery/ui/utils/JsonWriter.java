@@ -0,0 +1,440 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.utils;
+
+import org.apache.wicket.request.Response;
+
+/**
+ * Provides a streaming JSON writer that writes to a {@link Response}<br/>
+ * Content is accumulated in a per-thread buffer, which is flushed to the {@link Response} each time it exceeds {@link #THRESHOLD} characters.<br/>
+ * <b>Note:</b> Only one {@link JsonWriter} should be in use per thread at a time. {@link #flush()} should be called once the document is complete.<br/>
+ * Alternatively, a {@link JsonWriter} can write to a caller-supplied {@link StringBuilder}, in which case nothing is flushed.
+ * <pre>
+ * JsonWriter writer = new JsonWriter(response);
+ * writer.beginArray();
+ * writer.beginObject().property("id", 1).property("value", "my value").endObject();
+ * writer.endArray();
+ * writer.flush();
+ * </pre>
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public class JsonWriter
+{
+	/** Number of buffered characters above which the buffer is flushed to the response */
+	public static final int THRESHOLD = 4096;
+
+	/** Max capacity the per-thread buffer is allowed to keep between two usages */
+	private static final int MAX_CAPACITY = THRESHOLD * 4;
+
+	/** Max depth of nested objects/arrays */
+	private static final int MAX_DEPTH = 32;
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<StringBuilder>() {
+
+		@Override
+		protected StringBuilder initialValue()
+		{
+			return new StringBuilder(THRESHOLD * 2);
+		}
+	};
+
+	/**
+	 * Escapes a string to its JSON representation, without the surrounding double quotes
+	 * @param value the value to escape
+	 * @return the escaped value
+	 */
+	public static String escape(CharSequence value)
+	{
+		StringBuilder builder = new StringBuilder(value.length() + 16);
+		JsonWriter.escape(value, builder);
+
+		return builder.toString();
+	}
+
+	/**
+	 * Appends the escaped JSON representation of a string, without the surrounding double quotes
+	 * @param value the value to escape
+	 * @param builder the {@link StringBuilder} to append to
+	 */
+	public static void escape(CharSequence value, StringBuilder builder)
+	{
+		for (int i = 0, length = value.length(); i < length; i++)
+		{
+			char c = value.charAt(i);
+
+			switch (c)
+			{
+				case '"':
+					builder.append("\\\"");
+					break;
+				case '\\':
+					builder.append("\\\\");
+					break;
+				case '\n':
+					builder.append("\\n");
+					break;
+				case '\r':
+					builder.append("\\r");
+					break;
+				case '\t':
+					builder.append("\\t");
+					break;
+				case '\b':
+					builder.append("\\b");
+					break;
+				case '\f':
+					builder.append("\\f");
+					break;
+				case '/':
+					// prevents "</script>" to be interpreted when the JSON is inlined in a page
+					if (i > 0 && value.charAt(i - 1) == '<')
+					{
+						builder.append('\\');
+					}
+
+					builder.append(c);
+					break;
+				default:
+					if (c < 0x20 || c == '\u2028' || c == '\u2029')
+					{
+						builder.append("\\u").append(HEX[(c >> 12) & 0xF]).append(HEX[(c >> 8) & 0xF]).append(HEX[(c >> 4) & 0xF]).append(HEX[c & 0xF]);
+					}
+					else
+					{
+						builder.append(c);
+					}
+			}
+		}
+	}
+
+
+	private final Response response;
+	private StringBuilder buffer;
+
+	/** Indicates, for each depth, whether the next element is the first of its container */
+	private final boolean[] first;
+	private int depth;
+
+	/**
+	 * Constructor
+	 * @param response the {@link Response} to write to
+	 */
+	public JsonWriter(Response response)
+	{
+		this.response = response;
+		this.buffer = BUFFER.get();
+		this.buffer.setLength(0);
+
+		this.first = new boolean[MAX_DEPTH];
+		this.first[0] = true;
+		this.depth = 0;
+	}
+
+	/**
+	 * Constructor, for writing to a {@link StringBuilder}<br/>
+	 * The content is appended to the builder, which is neither cleared nor flushed.
+	 * @param builder the {@link StringBuilder} to write to
+	 */
+	public JsonWriter(StringBuilder builder)
+	{
+		this.response = null;
+		this.buffer = builder;
+
+		this.first = new boolean[MAX_DEPTH];
+		this.first[0] = true;
+		this.depth = 0;
+	}
+
+	// Structure //
+	/**
+	 * Begins a JSON array
+	 * @return this
+	 */
+	public JsonWriter beginArray()
+	{
+		return this.begin('[', true);
+	}
+
+	/**
+	 * Ends the current JSON array
+	 * @return this
+	 */
+	public JsonWriter endArray()
+	{
+		return this.end(']');
+	}
+
+	/**
+	 * Begins a JSON object
+	 * @return this
+	 */
+	public JsonWriter beginObject()
+	{
+		return this.begin('{', true);
+	}
+
+	/**
+	 * Ends the current JSON object
+	 * @return this
+	 */
+	public JsonWriter endObject()
+	{
+		return this.end('}');
+	}
+
+	/**
+	 * Begins a named JSON array, inside the current object
+	 * @param name the property name
+	 * @return this
+	 */
+	public JsonWriter beginArray(String name)
+	{
+		this.name(name);
+
+		return this.begin('[', false);
+	}
+
+	/**
+	 * Begins a named JSON object, inside the current object
+	 * @param name the property name
+	 * @return this
+	 */
+	public JsonWriter beginObject(String name)
+	{
+		this.name(name);
+
+		return this.begin('{', false);
+	}
+
+	private JsonWriter begin(char c, boolean separate)
+	{
+		if (this.depth + 1 >= MAX_DEPTH)
+		{
+			throw new IllegalStateException("Max depth reached: " + MAX_DEPTH);
+		}
+
+		if (separate)
+		{
+			this.separator();
+		}
+
+		this.buffer.append(c);
+		this.first[++this.depth] = true;
+
+		return this;
+	}
+
+	private JsonWriter end(char c)
+	{
+		if (this.depth == 0)
+		{
+			throw new IllegalStateException("No array or object to end");
+		}
+
+		this.depth--;
+		this.buffer.append(c);
+		this.flushIfNeeded();
+
+		return this;
+	}
+
+	// Values //
+	/**
+	 * Writes a string value, inside the current array
+	 * @param value the value, null is written as null
+	 * @return this
+	 */
+	public JsonWriter value(CharSequence value)
+	{
+		this.separator();
+		this.string(value);
+
+		return this;
+	}
+
+	/**
+	 * Writes a raw (already JSON or javascript) value, inside the current array
+	 * @param value the raw value
+	 * @return this
+	 */
+	public JsonWriter raw(CharSequence value)
+	{
+		this.separator();
+		this.buffer.append(value);
+
+		return this;
+	}
+
+	// Properties //
+	/**
+	 * Writes a string property, inside the current object
+	 * @param name the property name
+	 * @param value the property value, null is written as null
+	 * @return this
+	 */
+	public JsonWriter property(String name, CharSequence value)
+	{
+		this.name(name);
+		this.string(value);
+
+		return this;
+	}
+
+	/**
+	 * Writes an integer property, inside the current object
+	 * @param name the property name
+	 * @param value the property value
+	 * @return this
+	 */
+	public JsonWriter property(String name, int value)
+	{
+		this.name(name);
+		this.buffer.append(value);
+
+		return this;
+	}
+
+	/**
+	 * Writes a long property, inside the current object
+	 * @param name the property name
+	 * @param value the property value
+	 * @return this
+	 */
+	public JsonWriter property(String name, long value)
+	{
+		this.name(name);
+		this.buffer.append(value);
+
+		return this;
+	}
+
+	/**
+	 * Writes a boolean property, inside the current object
+	 * @param name the property name
+	 * @param value the property value
+	 * @return this
+	 */
+	public JsonWriter property(String name, boolean value)
+	{
+		this.name(name);
+		this.buffer.append(value);
+
+		return this;
+	}
+
+	/**
+	 * Writes a raw (already JSON or javascript) property, inside the current object
+	 * @param name the property name
+	 * @param value the raw value
+	 * @return this
+	 */
+	public JsonWriter rawProperty(String name, CharSequence value)
+	{
+		this.name(name);
+		this.buffer.append(value);
+
+		return this;
+	}
+
+	/**
+	 * Gets the underlying buffer, for callers that need to append pre-formatted content<br/>
+	 * The content appended should be a valid JSON value, preceded by a call to {@link #name(String)} when inside an object.
+	 * @return the buffer
+	 */
+	public StringBuilder getBuffer()
+	{
+		return this.buffer;
+	}
+
+	/**
+	 * Writes a property name, inside the current object
+	 * @param name the property name
+	 * @return this
+	 */
+	public JsonWriter name(String name)
+	{
+		this.separator();
+		this.buffer.append('"');
+		JsonWriter.escape(name, this.buffer);
+		this.buffer.append("\": ");
+
+		return this;
+	}
+
+	private void string(CharSequence value)
+	{
+		if (value != null)
+		{
+			this.buffer.append('"');
+			JsonWriter.escape(value, this.buffer);
+			this.buffer.append('"');
+		}
+		else
+		{
+			this.buffer.append("null");
+		}
+	}
+
+	private void separator()
+	{
+		if (this.first[this.depth])
+		{
+			this.first[this.depth] = false;
+		}
+		else
+		{
+			this.buffer.append(", ");
+		}
+	}
+
+	// Output //
+	private void flushIfNeeded()
+	{
+		if (this.response != null && this.buffer.length() > THRESHOLD)
+		{
+			this.flush();
+		}
+	}
+
+	/**
+	 * Writes the buffered content to the {@link Response}, if any
+	 */
+	public void flush()
+	{
+		if (this.response == null)
+		{
+			return;
+		}
+
+		if (this.buffer.length() > 0)
+		{
+			this.response.write(this.buffer);
+			this.buffer.setLength(0);
+		}
+
+		if (this.depth == 0 && this.buffer.capacity() > MAX_CAPACITY)
+		{
+			// does not retain an oversized buffer for the thread, but keeps a reusable one
+			this.buffer = new StringBuilder(THRESHOLD * 2);
+			BUFFER.set(this.buffer);
+		}
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.utils;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.Session;
+
+/**
+ * Utility class for getting, or creating, the shared values held by the {@link Application} or {@link Session} metadata<br/>
+ * The value is read without locking; the application (or session) is only locked when the value does not exist yet, so that it is created once.
+ * The created value is therefore expected to be thread-safe (ie: a {@link ConcurrentHashMap}).
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public class MetaDataUtils
+{
+	/**
+	 * Factory of a metadata value, called at most once per application (or session) and key
+	 *
+	 * @param <T> the type of the value
+	 */
+	public interface IFactory<T>
+	{
+		/**
+		 * Creates the value
+		 * @return the value
+		 */
+		T create();
+	}
+
+	/**
+	 * Gets the value of the {@link Application} metadata, or creates it if it does not exist yet
+	 * @param <T> the type of the value
+	 * @param application the {@link Application}
+	 * @param key the {@link MetaDataKey}
+	 * @param factory the {@link IFactory} of the value
+	 * @return the value
+	 */
+	public static <T> T get(Application application, MetaDataKey<T> key, IFactory<T> factory)
+	{
+		T value = application.getMetaData(key);
+
+		if (value == null)
+		{
+			synchronized (application)
+			{
+				value = application.getMetaData(key);
+
+				if (value == null)
+				{
+					value = factory.create();
+					application.setMetaData(key, value);
+				}
+			}
+		}
+
+		return value;
+	}
+
+	/**
+	 * Gets the value of the {@link Session} metadata, or creates it if it does not exist yet
+	 * @param <T> the type of the value
+	 * @param session the {@link Session}
+	 * @param key the {@link MetaDataKey}
+	 * @param factory the {@link IFactory} of the value
+	 * @return the value
+	 */
+	public static <T extends Serializable> T get(Session session, MetaDataKey<T> key, IFactory<T> factory)
+	{
+		T value = session.getMetaData(key);
+
+		if (value == null)
+		{
+			synchronized (session)
+			{
+				value = session.getMetaData(key);
+
+				if (value == null)
+				{
+					value = factory.create();
+					session.setMetaData(key, value);
+				}
+			}
+		}
+
+		return value;
+	}
+
+	/**
+	 * Gets the {@link ConcurrentHashMap} of the {@link Application} metadata, or creates it if it does not exist yet
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 * @param application the {@link Application}
+	 * @param key the {@link MetaDataKey}
+	 * @return the {@link ConcurrentHashMap}
+	 */
+	public static <K, V> ConcurrentHashMap<K, V> getMap(Application application, MetaDataKey<ConcurrentHashMap<K, V>> key)
+	{
+		return MetaDataUtils.get(application, key, MetaDataUtils.<K, V>newMapFactory());
+	}
+
+	/**
+	 * Gets the {@link ConcurrentHashMap} of the {@link Session} metadata, or creates it if it does not exist yet
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 * @param session the {@link Session}
+	 * @param key the {@link MetaDataKey}
+	 * @return the {@link ConcurrentHashMap}
+	 */
+	public static <K, V> ConcurrentHashMap<K, V> getMap(Session session, MetaDataKey<ConcurrentHashMap<K, V>> key)
+	{
+		return MetaDataUtils.get(session, key, MetaDataUtils.<K, V>newMapFactory());
+	}
+
+	/**
+	 * Gets a new {@link IFactory} of {@link ConcurrentHashMap}
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 * @return the {@link IFactory}
+	 */
+	private static <K, V> IFactory<ConcurrentHashMap<K, V>> newMapFactory()
+	{
+		return new IFactory<ConcurrentHashMap<K, V>>() {
+
+			@Override
+			public ConcurrentHashMap<K, V> create()
+			{
+				return new ConcurrentHashMap<K, V>();
+			}
+		};
+	}
+
+	/**
+	 * Utility class
+	 */
+	private MetaDataUtils()
+	{
+	}
+}
@@ -16,12 +16,17 @@
  */
 package com.googlecode.wicket.jquery.ui.kendo;
 
-import org.apache.wicket.request.resource.JavaScriptResourceReference;
+import org.apache.wicket.Component;
+import org.apache.wicket.markup.html.IHeaderResponse;
+import org.apache.wicket.request.resource.ResourceReference;
 
 import com.googlecode.wicket.jquery.ui.JQueryBehavior;
+import com.googlecode.wicket.jquery.ui.kendo.settings.KendoLibrarySettings;
+import com.googlecode.wicket.jquery.ui.settings.JQueryLibrarySettings;
 
 /**
- * Provides the base class for Kendo UI behavior implementations
+ * Provides the base class for Kendo UI behavior implementations<br/>
+ * The behavior loads the {@link KendoModule}<code>s</code> it requires, or the whole Kendo UI Web library if modules are not used (see {@link KendoLibrarySettings})
  * 
  * @author Sebastien Briquet - sebfz1
  *
@@ -30,16 +35,47 @@ public class KendoAbstractBehavior extends JQueryBehavior
 {
 	private static final long serialVersionUID = 1L;
 
+	private final KendoModule[] modules;
+
 	/**
 	 * Constructor
 	 * @param selector the html selector (ie: "#myId")
 	 * @param method the kendo-ui method
 	 */
 	public KendoAbstractBehavior(String selector, String method)
+	{
+		this(selector, method, new KendoModule[] {});
+	}
+
+	/**
+	 * Constructor
+	 * @param selector the html selector (ie: "#myId")
+	 * @param method the kendo-ui method
+	 * @param modules the {@link KendoModule}<code>s</code> required by the behavior
+	 */
+	public KendoAbstractBehavior(String selector, String method, KendoModule... modules)
 	{
 		super(selector, method);
-		
-		this.add(new JavaScriptResourceReference(KendoAbstractBehavior.class, "kendo.web.min.js"));
+
+		this.modules = modules;
+	}
+
+	@Override
+	public void renderHead(Component component, IHeaderResponse response)
+	{
+		// Adds jQuery Core javascript resource reference, before Kendo UI ones //
+		if (JQueryLibrarySettings.getJQueryReference() != null)
+		{
+			response.renderJavaScriptReference(JQueryLibrarySettings.getJQueryReference());
+		}
+
+		// Adds Kendo UI javascript resource references (resolved at render time, as the settings may have changed) //
+		for (ResourceReference reference : KendoLibrarySettings.getReferences(this.modules))
+		{
+			response.renderJavaScriptReference(reference);
+		}
+
+		super.renderHead(component, response);
 	}
 
 }
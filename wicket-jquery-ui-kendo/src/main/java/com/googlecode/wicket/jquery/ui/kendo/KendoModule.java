@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.kendo;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Provides the Kendo UI Web modules, and their dependencies.<br/>
+ * A {@link KendoAbstractBehavior} declares the modules it requires, so that only those modules - and their dependencies - are loaded by the page,
+ * if the module files are available (see {@link com.googlecode.wicket.jquery.ui.kendo.settings.KendoLibrarySettings#setModuleScope(Class)}).<br/>
+ * All the modules of Kendo UI Web are listed, so that a behavior which does not declare its modules loads all of them.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public enum KendoModule
+{
+	CORE("core"),
+	FX("fx", CORE),
+	DATA_ODATA("data.odata", CORE),
+	DATA_XML("data.xml", CORE),
+	DATA("data", CORE, DATA_ODATA, DATA_XML),
+	VALIDATOR("validator", CORE),
+	POPUP("popup", CORE),
+	LIST("list", DATA, POPUP),
+	DROPDOWNLIST("dropdownlist", LIST),
+	COMBOBOX("combobox", LIST),
+	AUTOCOMPLETE("autocomplete", LIST),
+	CALENDAR("calendar", CORE),
+	DATEPICKER("datepicker", CALENDAR, POPUP),
+	TIMEPICKER("timepicker", POPUP),
+	DATETIMEPICKER("datetimepicker", DATEPICKER, TIMEPICKER),
+	NUMERICTEXTBOX("numerictextbox", CORE),
+	DRAGANDDROP("draganddrop", CORE),
+	WINDOW("window", DRAGANDDROP),
+	EDITOR("editor", COMBOBOX, DROPDOWNLIST, WINDOW),
+	RESIZABLE("resizable", DRAGANDDROP),
+	SPLITTER("splitter", RESIZABLE),
+	SLIDER("slider", DRAGANDDROP),
+	GROUPABLE("groupable", DRAGANDDROP),
+	REORDERABLE("reorderable", DRAGANDDROP),
+	SORTABLE("sortable", DRAGANDDROP),
+	SELECTABLE("selectable", CORE),
+	PAGER("pager", DATA),
+	MENU("menu", POPUP),
+	EDITABLE("editable", VALIDATOR, DATEPICKER, NUMERICTEXTBOX, DROPDOWNLIST),
+	FILTERMENU("filtermenu", DATEPICKER, NUMERICTEXTBOX, DROPDOWNLIST),
+	COLUMNMENU("columnmenu", POPUP, FILTERMENU, MENU),
+	GRID("grid", DATA, COLUMNMENU, GROUPABLE, PAGER, SELECTABLE, SORTABLE, REORDERABLE, RESIZABLE, EDITABLE),
+	LISTVIEW("listview", DATA, EDITABLE, SELECTABLE),
+	UPLOAD("upload", CORE),
+	TREEVIEW("treeview", DATA, DRAGANDDROP),
+	TABSTRIP("tabstrip", FX),
+	PANELBAR("panelbar", FX);
+
+	private final String name;
+	private final KendoModule[] dependencies;
+
+	/**
+	 * Constructor
+	 * @param name the module name
+	 * @param dependencies the modules this module directly depends on
+	 */
+	private KendoModule(String name, KendoModule... dependencies)
+	{
+		this.name = name;
+		this.dependencies = dependencies;
+	}
+
+	/**
+	 * Gets the file name of the module
+	 * @return the file name (ie: "kendo.core.min.js")
+	 */
+	public String getFileName()
+	{
+		return "kendo." + this.name + ".min.js";
+	}
+
+	/**
+	 * Resolves the modules to be loaded
+	 * @param modules the required modules
+	 * @return the required modules and their dependencies, each dependency being ordered before the modules depending on it
+	 */
+	public static Set<KendoModule> resolve(KendoModule... modules)
+	{
+		Set<KendoModule> set = new LinkedHashSet<KendoModule>();
+
+		for (KendoModule module : modules)
+		{
+			module.resolve(set);
+		}
+
+		return set;
+	}
+
+	private void resolve(Set<KendoModule> set)
+	{
+		if (!set.contains(this))
+		{
+			for (KendoModule dependency : this.dependencies)
+			{
+				dependency.resolve(set);
+			}
+
+			set.add(this);
+		}
+	}
+}
@@ -17,6 +17,7 @@
 package com.googlecode.wicket.jquery.ui.kendo.combobox;
 
 import java.util.List;
+
 import org.apache.wicket.Component;
 import org.apache.wicket.markup.html.form.TextField;
 import org.apache.wicket.model.IModel;
@@ -26,12 +27,19 @@ import com.googlecode.wicket.jquery.ui.IJQueryWidget;
 import com.googlecode.wicket.jquery.ui.JQueryBehavior;
 import com.googlecode.wicket.jquery.ui.Options;
 import com.googlecode.wicket.jquery.ui.kendo.KendoAbstractBehavior;
+import com.googlecode.wicket.jquery.ui.kendo.KendoModule;
 import com.googlecode.wicket.jquery.ui.kendo.KendoTemplateBehavior;
+import com.googlecode.wicket.jquery.ui.kendo.data.IListDataProvider;
+import com.googlecode.wicket.jquery.ui.kendo.data.ListDataSourceBehavior;
 import com.googlecode.wicket.jquery.ui.template.IJQueryTemplate;
+import com.googlecode.wicket.jquery.ui.utils.JsonWriter;
 
 /**
  * Provides a Kendo UI ComboBox widget.<br/>
- * It should be created on a HTML &lt;input type="text" /&gt; element
+ * It should be created on a HTML &lt;input type="text" /&gt; element<br/>
+ * <br/>
+ * If the ComboBox is constructed with an {@link IListDataProvider}, the choices are not rendered in the page but are retrieved
+ * page by page, for the text typed by the user, through a {@link ListDataSourceBehavior} (server filtering &#38; server paging).
  *
  * @author Sebastien Briquet - sebfz1
  *
@@ -43,9 +51,11 @@ public class ComboBox<T> extends TextField<String> implements IJQueryWidget
 	private static final String METHOD = "kendoComboBox";
 
 	private final IModel<List<? extends T>> choices;
+	private final IListDataProvider<? extends T> provider;
 	private final ComboBoxRenderer<? super T> renderer;
 	private final IJQueryTemplate template;
 	private KendoTemplateBehavior templateBehavior = null;
+	private ListDataSourceBehavior<T> dataSourceBehavior = null;
 
 	/**
 	 * Constructor
@@ -89,6 +99,7 @@ public class ComboBox<T> extends TextField<String> implements IJQueryWidget
 		super(id);
 
 		this.choices = choices;
+		this.provider = null;
 		this.renderer = renderer;
 		this.template = this.newTemplate();
 	}
@@ -139,10 +150,75 @@ public class ComboBox<T> extends TextField<String> implements IJQueryWidget
 		super(id, model);
 
 		this.choices = choices;
+		this.provider = null;
+		this.renderer = renderer;
+		this.template = this.newTemplate();
+	}
+
+	/**
+	 * Constructor, for a remote data source
+	 * @param id the markup id
+	 * @param provider the {@link IListDataProvider} of choices
+	 */
+	public ComboBox(String id, IListDataProvider<? extends T> provider)
+	{
+		this(id, provider, new ComboBoxRenderer<T>());
+	}
+
+	/**
+	 * Constructor, for a remote data source
+	 * @param id the markup id
+	 * @param provider the {@link IListDataProvider} of choices
+	 * @param renderer the renderer to be used, so the renderer item text and its values can be dissociated
+	 */
+	public ComboBox(String id, IListDataProvider<? extends T> provider, ComboBoxRenderer<? super T> renderer)
+	{
+		super(id);
+
+		this.choices = null;
+		this.provider = provider;
+		this.renderer = renderer;
+		this.template = this.newTemplate();
+	}
+
+	/**
+	 * Constructor, for a remote data source
+	 * @param id the markup id
+	 * @param model the {@link IModel}
+	 * @param provider the {@link IListDataProvider} of choices
+	 */
+	public ComboBox(String id, IModel<String> model, IListDataProvider<? extends T> provider)
+	{
+		this(id, model, provider, new ComboBoxRenderer<T>());
+	}
+
+	/**
+	 * Constructor, for a remote data source
+	 * @param id the markup id
+	 * @param model the {@link IModel}
+	 * @param provider the {@link IListDataProvider} of choices
+	 * @param renderer the renderer to be used, so the renderer item text and its values can be dissociated
+	 */
+	public ComboBox(String id, IModel<String> model, IListDataProvider<? extends T> provider, ComboBoxRenderer<? super T> renderer)
+	{
+		super(id, model);
+
+		this.choices = null;
+		this.provider = provider;
 		this.renderer = renderer;
 		this.template = this.newTemplate();
 	}
 
+	// Properties //
+	/**
+	 * Gets the number of choices to be retrieved per request, when using a remote data source
+	 * @return {@link ListDataSourceBehavior#PAGE_SIZE} by default
+	 */
+	protected int getPageSize()
+	{
+		return ListDataSourceBehavior.PAGE_SIZE;
+	}
+
 
 	// Events //
 	@Override
@@ -152,6 +228,11 @@ public class ComboBox<T> extends TextField<String> implements IJQueryWidget
 
 		this.add(JQueryWidget.newWidgetBehavior(this));
 
+		if (this.provider != null)
+		{
+			this.add(this.dataSourceBehavior = this.newDataSourceBehavior());
+		}
+
 		if (this.template != null)
 		{
 			this.add(this.templateBehavior = new KendoTemplateBehavior(this.template));
@@ -176,6 +257,14 @@ public class ComboBox<T> extends TextField<String> implements IJQueryWidget
 		behavior.setOption("dataTextField", Options.asString(this.renderer.getTextField()));
 		behavior.setOption("dataValueField", Options.asString(this.renderer.getValueField()));
 
+		if (this.dataSourceBehavior != null)
+		{
+			behavior.setOption("filter", Options.asString("startswith")); // server filtering requires a filter operator
+			behavior.setOption("dataSource", this.dataSourceBehavior.getDataSource());
+
+			return;
+		}
+
 		StringBuilder dataSource = new StringBuilder("[");
 
 		List<? extends T> list = this.choices.getObject();
@@ -218,7 +307,7 @@ public class ComboBox<T> extends TextField<String> implements IJQueryWidget
 	@Override
 	public JQueryBehavior newWidgetBehavior(String selector)
 	{
-		return new KendoAbstractBehavior(selector, ComboBox.METHOD) {
+		return new KendoAbstractBehavior(selector, ComboBox.METHOD, KendoModule.COMBOBOX) {
 
 			private static final long serialVersionUID = 1L;
 
@@ -231,6 +320,33 @@ public class ComboBox<T> extends TextField<String> implements IJQueryWidget
 	}
 
 	// Factories //
+	/**
+	 * Gets a new {@link ListDataSourceBehavior} that streams the choices of the {@link IListDataProvider}
+	 * @return the {@link ListDataSourceBehavior}
+	 */
+	private ListDataSourceBehavior<T> newDataSourceBehavior()
+	{
+		return new ListDataSourceBehavior<T>(this.provider, this.getPageSize()) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void write(JsonWriter writer, T object)
+			{
+				writer.property(renderer.getTextField(), renderer.getText(object));
+				writer.property(renderer.getValueField(), renderer.getValue(object));
+
+				if (template != null)
+				{
+					for (String property : template.getTextProperties())
+					{
+						writer.property(property, renderer.getText(object, property));
+					}
+				}
+			}
+		};
+	}
+
 	/**
 	 * Gets a new {@link IJQueryTemplate} to customize the rendering<br/>
 	 * The properties used in the template text (ie: ${data.name}) should be of the prefixed by "data." and should be identified in the list returned by {@link IJQueryTemplate#getTextProperties()} (without "data.")
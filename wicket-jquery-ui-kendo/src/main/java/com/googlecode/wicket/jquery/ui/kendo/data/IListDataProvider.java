@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.kendo.data;
+
+import java.util.List;
+
+import org.apache.wicket.IClusterable;
+
+/**
+ * Provides the filtered and paged choices of a Kendo UI list widget (ie: ComboBox, DropDownList) working with a remote data source.<br/>
+ * The provider is queried each time the widget needs a page of data, for the current filter text.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ * @param <T> the type of the choices
+ */
+public interface IListDataProvider<T> extends IClusterable
+{
+	/**
+	 * Gets the number of choices matching the filter
+	 * @param filter the filter text (empty if the user did not type anything)
+	 * @return the number of matching choices
+	 */
+	int count(String filter);
+
+	/**
+	 * Gets a page of the choices matching the filter
+	 * @param filter the filter text (empty if the user did not type anything)
+	 * @param first the index of the first choice to be returned
+	 * @param count the max number of choices to be returned
+	 * @return the list of choices
+	 */
+	List<? extends T> getChoices(String filter, int first, int count);
+}
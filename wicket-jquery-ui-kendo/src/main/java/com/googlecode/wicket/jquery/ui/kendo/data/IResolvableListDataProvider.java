@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.kendo.data;
+
+/**
+ * Provides an {@link IListDataProvider} that is also able to identify a choice, and to resolve a choice from its id.<br/>
+ * It is required by widgets that hold the selected object (ie: RemoteDropDownList), as the whole list of choices is never available on the server side.
+ * The id should therefore be stable: it should not depend on the filter nor on the paging (ie: a primary key rather than an index).
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ * @param <T> the type of the choices
+ */
+public interface IResolvableListDataProvider<T> extends IListDataProvider<T>
+{
+	/**
+	 * Gets the id of a choice
+	 * @param object the choice
+	 * @return the id, which should be resolved to the same choice by {@link #resolve(String)}
+	 */
+	String getId(T object);
+
+	/**
+	 * Resolves a choice from its id
+	 * @param id the id, as returned by {@link #getId(Object)}
+	 * @return the choice, or null if it cannot be resolved
+	 */
+	T resolve(String id);
+}
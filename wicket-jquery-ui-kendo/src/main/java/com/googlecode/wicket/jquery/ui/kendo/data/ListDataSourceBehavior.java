@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.kendo.data;
+
+import java.util.List;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.behavior.AbstractAjaxBehavior;
+import org.apache.wicket.request.IRequestCycle;
+import org.apache.wicket.request.IRequestHandler;
+import org.apache.wicket.request.IRequestParameters;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.request.http.WebResponse;
+
+import com.googlecode.wicket.jquery.ui.Options;
+import com.googlecode.wicket.jquery.ui.utils.JsonWriter;
+
+/**
+ * Provides the behavior that answers the remote data source requests of a Kendo UI list widget (server filtering &#38; server paging).<br/>
+ * The response is streamed in the following JSON format: <code>{ "data": [ { ... }, ... ], "total": 123 }</code>,
+ * where each item is written by {@link #write(JsonWriter, Object)}.<br/>
+ * The number of items of a response is bounded by the page size of the data source, whatever the client requests.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ * @param <T> the type of the choices
+ */
+public abstract class ListDataSourceBehavior<T> extends AbstractAjaxBehavior
+{
+	private static final long serialVersionUID = 1L;
+
+	/** default page size */
+	public static final int PAGE_SIZE = 80;
+
+	private final IListDataProvider<? extends T> provider;
+	private final int pageSize; // max number of items per request
+
+	/**
+	 * Constructor, using the default {@link #PAGE_SIZE}
+	 * @param provider the {@link IListDataProvider}
+	 */
+	public ListDataSourceBehavior(IListDataProvider<? extends T> provider)
+	{
+		this(provider, PAGE_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 * @param provider the {@link IListDataProvider}
+	 * @param pageSize the number of items to be retrieved per request, which is also the max number of items the behavior responds
+	 */
+	public ListDataSourceBehavior(IListDataProvider<? extends T> provider, int pageSize)
+	{
+		this.provider = provider;
+		this.pageSize = pageSize;
+	}
+
+	// Properties //
+	/**
+	 * Gets the number of items to be retrieved per request
+	 * @return the page size
+	 */
+	public int getPageSize()
+	{
+		return this.pageSize;
+	}
+
+	/**
+	 * Writes the JSON properties of an item, inside the current JSON object
+	 * @param writer the {@link JsonWriter}
+	 * @param object the item
+	 */
+	protected abstract void write(JsonWriter writer, T object);
+
+	/**
+	 * Gets the Kendo UI 'dataSource' option corresponding to this behavior
+	 * @return the 'dataSource' object, as a javascript string
+	 */
+	public String getDataSource()
+	{
+		StringBuilder builder = new StringBuilder("{ ");
+
+		builder.append("serverFiltering: true, ");
+		builder.append("serverPaging: true, ");
+		builder.append("pageSize: ").append(this.pageSize).append(", ");
+		builder.append("schema: { data: 'data', total: 'total' }, ");
+		builder.append("transport: { ");
+		builder.append("read: { url: ").append(Options.asString(this.getCallbackUrl())).append(", dataType: 'json' }, ");
+		builder.append("parameterMap: function(data, type) { ");
+		builder.append("return { skip: data.skip, take: data.take, filter: (data.filter && data.filter.filters.length > 0) ? data.filter.filters[0].value : '' }; ");
+		builder.append("} ");
+		builder.append("} }");
+
+		return builder.toString();
+	}
+
+	@Override
+	public void onRequest()
+	{
+		final RequestCycle requestCycle = RequestCycle.get();
+		final IRequestParameters parameters = requestCycle.getRequest().getQueryParameters();
+
+		final String filter = parameters.getParameterValue("filter").toString("");
+		final int skip = Math.max(0, parameters.getParameterValue("skip").toInt(0));
+		final int take = Math.min(Math.max(0, parameters.getParameterValue("take").toInt(this.pageSize)), this.pageSize); // the client cannot request more than a page
+
+		requestCycle.scheduleRequestHandlerAfterCurrent(this.newRequestHandler(filter, skip, take));
+	}
+
+	/**
+	 * Gets the new {@link IRequestHandler} that will respond the requested page of items in a json format
+	 * @param filter the filter text
+	 * @param skip the index of the first item
+	 * @param take the number of items
+	 * @return the {@link IRequestHandler}
+	 */
+	private IRequestHandler newRequestHandler(final String filter, final int skip, final int take)
+	{
+		return new IRequestHandler()
+		{
+			@Override
+			public void respond(final IRequestCycle requestCycle)
+			{
+				WebResponse response = (WebResponse) requestCycle.getResponse();
+
+				final String encoding = Application.get().getRequestCycleSettings().getResponseRequestEncoding();
+				response.setContentType("text/json; charset=" + encoding);
+				response.disableCaching();
+
+				final int total = provider.count(filter);
+				final List<? extends T> list = (take > 0 && skip < total) ? provider.getChoices(filter, skip, take) : null;
+
+				JsonWriter writer = new JsonWriter(response);
+				writer.beginObject();
+				writer.beginArray("data");
+
+				if (list != null)
+				{
+					for (T object : list)
+					{
+						writer.beginObject();
+						ListDataSourceBehavior.this.write(writer, object);
+						writer.endObject();
+					}
+				}
+
+				writer.endArray();
+				writer.property("total", total);
+				writer.endObject();
+				writer.flush();
+			}
+
+			@Override
+			public void detach(final IRequestCycle requestCycle)
+			{
+			}
+		};
+	}
+}
@@ -17,7 +17,6 @@
 package com.googlecode.wicket.jquery.ui.kendo.datetime;
 
 import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 
@@ -29,6 +28,8 @@ import org.apache.wicket.util.convert.IConverter;
 import org.apache.wicket.util.convert.converter.DateConverter;
 import org.apache.wicket.validation.ValidationError;
 
+import com.googlecode.wicket.jquery.ui.utils.DateUtils;
+
 /**
  * Provides a date-time-picker based on a {@link DatePicker} and a {@link TimePicker}
  *
@@ -154,7 +155,7 @@ public class DateTimePicker extends FormComponentPanel<Date> implements ITextFor
 					locale = Locale.getDefault();
 				}
 
-				return new SimpleDateFormat(getTextFormat(), locale);
+				return (DateFormat) DateUtils.getDateFormat(getTextFormat(), locale).clone(); // the converter may keep it
 			}
 		};
 	}
@@ -230,7 +231,7 @@ public class DateTimePicker extends FormComponentPanel<Date> implements ITextFor
 
 		if (date != null)
 		{
-			return new SimpleDateFormat(this.getTextFormat()).format(date);
+			return DateUtils.format(date, this.getTextFormat());
 		}
 
 		return "";
@@ -16,7 +16,6 @@
  */
 package com.googlecode.wicket.jquery.ui.kendo.datetime;
 
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
 import org.apache.wicket.Component;
@@ -27,6 +26,8 @@ import com.googlecode.wicket.jquery.ui.IJQueryWidget;
 import com.googlecode.wicket.jquery.ui.JQueryBehavior;
 import com.googlecode.wicket.jquery.ui.Options;
 import com.googlecode.wicket.jquery.ui.kendo.KendoAbstractBehavior;
+import com.googlecode.wicket.jquery.ui.kendo.KendoModule;
+import com.googlecode.wicket.jquery.ui.utils.DateUtils;
 
 /**
  * Provides a Kendo UI TimePicker<br/>
@@ -154,7 +155,7 @@ public class TimePicker extends DateTextField implements IJQueryWidget
 
 		if (date != null)
 		{
-			return new SimpleDateFormat(this.getTextFormat()).format(date);
+			return DateUtils.format(date, this.getTextFormat());
 		}
 		
 		return "";
@@ -184,7 +185,7 @@ public class TimePicker extends DateTextField implements IJQueryWidget
 	@Override
 	public JQueryBehavior newWidgetBehavior(String selector)
 	{
-		return new KendoAbstractBehavior(selector, METHOD) {
+		return new KendoAbstractBehavior(selector, METHOD, KendoModule.TIMEPICKER) {
 
 			private static final long serialVersionUID = 1L;
 
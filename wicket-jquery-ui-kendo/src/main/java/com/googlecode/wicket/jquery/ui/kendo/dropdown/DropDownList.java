@@ -27,6 +27,7 @@ import com.googlecode.wicket.jquery.ui.IJQueryWidget;
 import com.googlecode.wicket.jquery.ui.JQueryBehavior;
 import com.googlecode.wicket.jquery.ui.Options;
 import com.googlecode.wicket.jquery.ui.kendo.KendoAbstractBehavior;
+import com.googlecode.wicket.jquery.ui.kendo.KendoModule;
 
 /**
  * Provides a Kendo UI DropDownList widget. It extends built-in {@link DropDownChoice}<br/>
@@ -161,7 +162,7 @@ public class DropDownList<T> extends DropDownChoice<T> implements IJQueryWidget
 	@Override
 	public JQueryBehavior newWidgetBehavior(String selector)
 	{
-		return new KendoAbstractBehavior(selector, DropDownList.METHOD) {
+		return new KendoAbstractBehavior(selector, DropDownList.METHOD, KendoModule.DROPDOWNLIST) {
 
 			private static final long serialVersionUID = 1L;
 
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.kendo.dropdown;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.markup.html.form.TextField;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.util.string.Strings;
+
+import com.googlecode.wicket.jquery.ui.IJQueryWidget;
+import com.googlecode.wicket.jquery.ui.JQueryBehavior;
+import com.googlecode.wicket.jquery.ui.Options;
+import com.googlecode.wicket.jquery.ui.kendo.KendoAbstractBehavior;
+import com.googlecode.wicket.jquery.ui.kendo.KendoModule;
+import com.googlecode.wicket.jquery.ui.kendo.data.IResolvableListDataProvider;
+import com.googlecode.wicket.jquery.ui.kendo.data.ListDataSourceBehavior;
+import com.googlecode.wicket.jquery.ui.renderer.ITextRenderer;
+import com.googlecode.wicket.jquery.ui.renderer.TextRenderer;
+import com.googlecode.wicket.jquery.ui.utils.JsonWriter;
+
+/**
+ * Provides a Kendo UI DropDownList widget which choices are retrieved remotely, page by page, through a {@link ListDataSourceBehavior}.<br/>
+ * Unlike {@link DropDownList}, the choices are neither rendered in the page nor kept in the component: the list is only loaded when the user opens it
+ * and only the selected choice is resolved on the server side, by {@link IResolvableListDataProvider#resolve(String)}.
+ * It is therefore suitable for very large lists of choices.<br/>
+ * The id of a choice is provided by {@link IResolvableListDataProvider#getId(Object)}, and should be stable (ie: a primary key, not an index, as indexes refer
+ * to the filtered page the choice has been picked from); the {@link ITextRenderer} only provides the displayed text.<br/>
+ * It should be created on a HTML &lt;input type="text" /&gt; element<br/>
+ * <br/>
+ * <b>Note:</b> The filter sent to the {@link IResolvableListDataProvider} is the one applied to the Kendo UI data source (ie: <code>widget.dataSource.filter(...)</code>),
+ * as this version of the Kendo UI DropDownList does not provide a filter input.
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ * @param <T> the model object type
+ */
+public class RemoteDropDownList<T> extends TextField<T> implements IJQueryWidget
+{
+	private static final long serialVersionUID = 1L;
+	private static final String METHOD = "kendoDropDownList";
+
+	private static final String TEXT_FIELD = "dd_text";
+	private static final String VALUE_FIELD = "dd_value";
+
+	private final IResolvableListDataProvider<T> provider;
+	private final ITextRenderer<? super T> renderer;
+	private ListDataSourceBehavior<T> dataSourceBehavior = null;
+
+	/**
+	 * Constructor
+	 * @param id the markup id
+	 * @param provider the {@link IResolvableListDataProvider} of choices
+	 */
+	public RemoteDropDownList(String id, IResolvableListDataProvider<T> provider)
+	{
+		this(id, provider, new TextRenderer<T>());
+	}
+
+	/**
+	 * Constructor
+	 * @param id the markup id
+	 * @param provider the {@link IResolvableListDataProvider} of choices
+	 * @param renderer the {@link ITextRenderer} of the displayed text
+	 */
+	public RemoteDropDownList(String id, IResolvableListDataProvider<T> provider, ITextRenderer<? super T> renderer)
+	{
+		super(id);
+
+		this.provider = provider;
+		this.renderer = renderer;
+	}
+
+	/**
+	 * Constructor
+	 * @param id the markup id
+	 * @param model the {@link IModel}
+	 * @param provider the {@link IResolvableListDataProvider} of choices
+	 */
+	public RemoteDropDownList(String id, IModel<T> model, IResolvableListDataProvider<T> provider)
+	{
+		this(id, model, provider, new TextRenderer<T>());
+	}
+
+	/**
+	 * Constructor
+	 * @param id the markup id
+	 * @param model the {@link IModel}
+	 * @param provider the {@link IResolvableListDataProvider} of choices
+	 * @param renderer the {@link ITextRenderer} of the displayed text
+	 */
+	public RemoteDropDownList(String id, IModel<T> model, IResolvableListDataProvider<T> provider, ITextRenderer<? super T> renderer)
+	{
+		super(id, model);
+
+		this.provider = provider;
+		this.renderer = renderer;
+	}
+
+	// Properties //
+	/**
+	 * Gets the number of choices to be retrieved per request
+	 * @return {@link ListDataSourceBehavior#PAGE_SIZE} by default
+	 */
+	protected int getPageSize()
+	{
+		return ListDataSourceBehavior.PAGE_SIZE;
+	}
+
+	/**
+	 * Gets the text displayed when no choice is selected
+	 * @return null by default, meaning no option label
+	 */
+	protected String getOptionLabel()
+	{
+		return null;
+	}
+
+	// Methods //
+	@Override
+	protected String getModelValue()
+	{
+		T object = this.getModelObject();
+
+		return (object != null) ? this.provider.getId(object) : "";
+	}
+
+	@Override
+	protected void convertInput()
+	{
+		String input = this.getInput();
+
+		this.setConvertedInput(Strings.isEmpty(input) ? null : this.provider.resolve(input));
+	}
+
+	// Events //
+	@Override
+	protected void onInitialize()
+	{
+		super.onInitialize();
+
+		this.add(JQueryWidget.newWidgetBehavior(this));
+		this.add(this.dataSourceBehavior = this.newDataSourceBehavior());
+	}
+
+	/**
+	 * Called immediately after the onConfigure method in a behavior. Since this is before the rendering
+	 * cycle has begun, the behavior can modify the configuration of the component (i.e. {@link Options})
+	 *
+	 * @param behavior the {@link JQueryBehavior}
+	 */
+	protected void onConfigure(JQueryBehavior behavior)
+	{
+		behavior.setOption("dataTextField", Options.asString(TEXT_FIELD));
+		behavior.setOption("dataValueField", Options.asString(VALUE_FIELD));
+		behavior.setOption("dataSource", this.dataSourceBehavior.getDataSource());
+
+		// the first page is only requested when the list is opened; the selected choice is displayed meanwhile //
+		behavior.setOption("autoBind", false);
+
+		T object = this.getModelObject();
+
+		if (object != null)
+		{
+			behavior.setOption("text", Options.asString(JsonWriter.escape(this.renderer.getText(object))));
+		}
+
+		String label = this.getOptionLabel();
+
+		if (label != null)
+		{
+			behavior.setOption("optionLabel", Options.asString(JsonWriter.escape(label)));
+		}
+	}
+
+	// IJQueryWidget //
+	@Override
+	public JQueryBehavior newWidgetBehavior(String selector)
+	{
+		return new KendoAbstractBehavior(selector, RemoteDropDownList.METHOD, KendoModule.DROPDOWNLIST) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void onConfigure(Component component)
+			{
+				RemoteDropDownList.this.onConfigure(this);
+			}
+		};
+	}
+
+	// Factories //
+	/**
+	 * Gets a new {@link ListDataSourceBehavior} that streams the choices of the {@link IResolvableListDataProvider}
+	 * @return the {@link ListDataSourceBehavior}
+	 */
+	private ListDataSourceBehavior<T> newDataSourceBehavior()
+	{
+		return new ListDataSourceBehavior<T>(this.provider, this.getPageSize()) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void write(JsonWriter writer, T object)
+			{
+				writer.property(TEXT_FIELD, renderer.getText(object));
+				writer.property(VALUE_FIELD, provider.getId(object));
+			}
+		};
+	}
+}
@@ -24,6 +24,7 @@ import com.googlecode.wicket.jquery.ui.IJQueryWidget;
 import com.googlecode.wicket.jquery.ui.JQueryBehavior;
 import com.googlecode.wicket.jquery.ui.Options;
 import com.googlecode.wicket.jquery.ui.kendo.KendoAbstractBehavior;
+import com.googlecode.wicket.jquery.ui.kendo.KendoModule;
 
 /**
  * Provides a Kendo UI Editor widget.<br/>
@@ -36,6 +37,7 @@ import com.googlecode.wicket.jquery.ui.kendo.KendoAbstractBehavior;
 public class Editor<T> extends TextArea<T> implements IJQueryWidget
 {
 	private static final long serialVersionUID = 1L;
+	private static final Options DEFAULTS = Options.register("kendo-editor", new Options("encoded", false));
 	private static final String METHOD = "kendoEditor";
 	
 	private final Options options;
@@ -49,7 +51,7 @@ public class Editor<T> extends TextArea<T> implements IJQueryWidget
 	 */
 	public Editor(String id)
 	{
-		this(id, new Options("encoded", false));
+		this(id, new Options(DEFAULTS));
 		this.setEscapeModelStrings(false);
 	}
 
@@ -76,7 +78,7 @@ public class Editor<T> extends TextArea<T> implements IJQueryWidget
 	 */
 	public Editor(String id, IModel<T> model)
 	{
-		this(id, model, new Options("encoded", false));
+		this(id, model, new Options(DEFAULTS));
 		this.setEscapeModelStrings(false);
 	}
 
@@ -117,7 +119,7 @@ public class Editor<T> extends TextArea<T> implements IJQueryWidget
 	@Override
 	public JQueryBehavior newWidgetBehavior(String selector)
 	{
-		return new KendoAbstractBehavior(selector, Editor.METHOD) {
+		return new KendoAbstractBehavior(selector, Editor.METHOD, KendoModule.EDITOR) {
 
 			private static final long serialVersionUID = 1L;
 
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.wicket.jquery.ui.kendo.settings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.wicket.request.resource.JavaScriptResourceReference;
+import org.apache.wicket.request.resource.ResourceReference;
+
+import com.googlecode.wicket.jquery.ui.kendo.KendoAbstractBehavior;
+import com.googlecode.wicket.jquery.ui.kendo.KendoModule;
+
+/**
+ * Provides an utility class for Kendo UI library settings.<br/>
+ * By default, the whole Kendo UI Web library (kendo.web.min.js) is loaded by each page using a Kendo UI widget.
+ * If the module files of the Kendo UI distribution (ie: kendo.core.min.js, kendo.list.min.js, ...) are supplied, pages only load the modules required by their widgets.
+ * The module files are looked up in the package of {@link KendoAbstractBehavior} by default, or in the package of the scope class:
+ *
+ * <code><pre>
+ * public class MyApplication extends WebApplication
+ * {
+ *     public void init()
+ *     {
+ *         super.init();
+ *
+ *         KendoLibrarySettings.setModuleScope(MyApplication.class); // kendo.*.min.js files are in the same package as MyApplication
+ *     }
+ * }
+ * <pre></code>
+ *
+ * @author Sebastien Briquet - sebfz1
+ *
+ */
+public class KendoLibrarySettings
+{
+	private static ResourceReference kendoReference = new JavaScriptResourceReference(KendoAbstractBehavior.class, "kendo.web.min.js");
+	private static Class<?> moduleScope = KendoLibrarySettings.hasModules(KendoAbstractBehavior.class) ? KendoAbstractBehavior.class : null;
+
+	// Kendo UI Web //
+
+	/**
+	 * Gets the Kendo UI Web library resource reference, used if no module scope is defined
+	 *
+	 * @return the {@link ResourceReference}
+	 */
+	public static ResourceReference getKendoReference()
+	{
+		return KendoLibrarySettings.kendoReference;
+	}
+
+	/**
+	 * Sets the Kendo UI Web library resource reference, used if no module scope is defined<br/>
+	 * The reference is rendered as a javascript reference, whatever its type (ie: a {@link JavaScriptResourceReference}, or an url reference to a CDN)
+	 *
+	 * @param reference the {@link ResourceReference}, or null
+	 */
+	public static void setKendoReference(ResourceReference reference)
+	{
+		KendoLibrarySettings.kendoReference = reference;
+	}
+
+	// Kendo UI modules //
+
+	/**
+	 * Gets the class which package contains the Kendo UI module files
+	 *
+	 * @return the scope class, or null if modules are not used
+	 */
+	public static Class<?> getModuleScope()
+	{
+		return KendoLibrarySettings.moduleScope;
+	}
+
+	/**
+	 * Sets the class which package contains the Kendo UI module files
+	 *
+	 * @param scope the scope class, or null to load the whole library
+	 */
+	public static void setModuleScope(Class<?> scope)
+	{
+		KendoLibrarySettings.moduleScope = scope;
+	}
+
+	/**
+	 * Gets the resource references to be loaded for the required modules
+	 *
+	 * @param modules the required {@link KendoModule}<code>s</code>, or none if not specified
+	 * @return the module references and their dependencies, in order (all modules if none is specified, so that Kendo UI is never loaded twice by a page);
+	 * or the Kendo UI Web library reference if the modules are not used
+	 */
+	public static List<ResourceReference> getReferences(KendoModule... modules)
+	{
+		final Class<?> scope = KendoLibrarySettings.moduleScope;
+
+		if (scope == null)
+		{
+			if (KendoLibrarySettings.kendoReference != null)
+			{
+				return Collections.singletonList(KendoLibrarySettings.kendoReference);
+			}
+
+			return Collections.emptyList();
+		}
+
+		List<ResourceReference> references = new ArrayList<ResourceReference>();
+
+		for (KendoModule module : KendoModule.resolve(modules.length > 0 ? modules : KendoModule.values()))
+		{
+			references.add(new JavaScriptResourceReference(scope, module.getFileName()));
+		}
+
+		return references;
+	}
+
+	/**
+	 * Indicates whether the module files are available in the package of the scope class
+	 * @param scope the scope class
+	 * @return true if the core module is found
+	 */
+	private static boolean hasModules(Class<?> scope)
+	{
+		return scope.getResource(KendoModule.CORE.getFileName()) != null;
+	}
+
+	/**
+	 * Utility class
+	 */
+	private KendoLibrarySettings()
+	{
+	}
+}
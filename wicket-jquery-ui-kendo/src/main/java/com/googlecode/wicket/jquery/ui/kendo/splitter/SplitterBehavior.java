@@ -18,6 +18,7 @@ package com.googlecode.wicket.jquery.ui.kendo.splitter;
 
 import com.googlecode.wicket.jquery.ui.Options;
 import com.googlecode.wicket.jquery.ui.kendo.KendoAbstractBehavior;
+import com.googlecode.wicket.jquery.ui.kendo.KendoModule;
 
 /**
  * Provides a Kendo UI splitter behavior
@@ -46,6 +47,6 @@ public class SplitterBehavior extends KendoAbstractBehavior
 	 */
 	public SplitterBehavior(String selector, Options options)
 	{
-		super(selector, METHOD);
+		super(selector, METHOD, KendoModule.SPLITTER);
 	}
 }
@@ -18,7 +18,6 @@ package com.googlecode.wicket.jquery.ui.plugins.datepicker;
 
 import java.text.DateFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 
@@ -33,6 +32,7 @@ import org.apache.wicket.util.convert.IConverter;
 import com.googlecode.wicket.jquery.ui.JQueryAbstractBehavior;
 import com.googlecode.wicket.jquery.ui.Options;
 import com.googlecode.wicket.jquery.ui.event.IValueChangedListener;
+import com.googlecode.wicket.jquery.ui.utils.DateUtils;
 
 /**
  * Provides a {@link FormComponentPanel} based on a {@link TextField} and a {@link RangeDatePicker}
@@ -43,6 +43,7 @@ import com.googlecode.wicket.jquery.ui.event.IValueChangedListener;
 public class RangeDatePickerTextField extends FormComponentPanel<DateRange> implements IValueChangedListener
 {
 	private static final long serialVersionUID = 1L;
+	private static final Options DEFAULTS = Options.register("range-datepicker", new Options("calendars", 3));
 	private static final String NULL = "?";
 	private static final String SEPARATOR = " - ";
 
@@ -55,7 +56,7 @@ public class RangeDatePickerTextField extends FormComponentPanel<DateRange> impl
 	 */
 	public RangeDatePickerTextField(String id)
 	{
-		this(id, new Options("calendars", 3));
+		this(id, new Options(DEFAULTS));
 	}
 
 	/**
@@ -77,7 +78,7 @@ public class RangeDatePickerTextField extends FormComponentPanel<DateRange> impl
 	 */
 	public RangeDatePickerTextField(String id, IModel<DateRange> model)
 	{
-		this(id, model, new Options("calendars", 3));
+		this(id, model, new Options(DEFAULTS));
 	}
 
 	/**
@@ -159,11 +160,11 @@ public class RangeDatePickerTextField extends FormComponentPanel<DateRange> impl
 	/**
 	 * Gets a new {@link DateFormat} to be used by the {@link TextField}'s {@link IConverter}
 	 * @param locale the {@link Locale}
-	 * @return the {@link DateFormat}
+	 * @return a copy of the per-thread cached {@link DateFormat} by default (see {@link DateUtils#getDateFormat(String, Locale)}), which can therefore be modified
 	 */
 	protected DateFormat newDateFormat(Locale locale)
 	{
-		return new SimpleDateFormat("dd MMM yyyy", locale);
+		return (DateFormat) DateUtils.getDateFormat("dd MMM yyyy", locale).clone(); // cheaper than parsing the pattern again
 	}
 
 	/**